@@ -0,0 +1,68 @@
+package Analyzer.slicer;
+
+import bench.SyntheticCallGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+// Loading a synthetic power-law call graph: the original line-by-line CodeSlicer.Graph, the chunked
+// CompactGraph loader and the memory-mapped snapshot. One invocation is one full load.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class CallGraphBenchmark {
+    @Param({"graph", "compact", "snapshot"})
+    String loader;
+
+    @Param({"1000000"})
+    int edges;
+
+    @Param({"42"})
+    long seed;
+
+    private Callable<Object> load;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        load = loadCallGraph(loader, edges, seed);
+    }
+
+    @Benchmark
+    public Object load() throws Exception {
+        return load.call();
+    }
+
+    private static Callable<Object> loadCallGraph(String kind, int edges, long seed) throws IOException {
+        String callGraphFile = SyntheticCallGraph.cached(edges, seed).toString();
+        switch (kind) {
+            case "graph":
+                return () -> CodeSlicer.createGraphFromOutput(callGraphFile);
+            case "compact":
+                return () -> new CallGraphLoader(Runtime.getRuntime().availableProcessors()).load(callGraphFile);
+            case "snapshot":
+                if (!Files.isRegularFile(GraphSnapshot.snapshotPathFor(callGraphFile))) {
+                    GraphSnapshot.write(new CallGraphLoader(1).load(callGraphFile), callGraphFile);
+                }
+                return () -> GraphSnapshot.load(callGraphFile);
+            default:
+                throw new IllegalArgumentException("unknown call-graph loader: " + kind);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package Analyzer.slicer;
+
+import java.util.Random;
+import java.util.Set;
+
+// Compares heap footprint, build time and two-hop query latency of CodeSlicer.Graph and CompactGraph
+// on a synthetic call graph. Run with a large heap, e.g.
+//   java -Xmx4g Analyzer.slicer.CompactGraphComparison 3000000
+public class CompactGraphComparison {
+    private static final int PACKAGES = 2000;
+    private static final int CLASSES_PER_PACKAGE = 25;
+    private static final int QUERIES = 100000;
+
+    public static void main(String[] args) {
+        int edgeCount = args.length > 0 ? Integer.parseInt(args[0]) : 3000000;
+        int methodCount = Math.max(1000, edgeCount / 6);
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42L;
+
+        System.out.println("edges=" + edgeCount + " methods=" + methodCount);
+
+        long before = usedHeap();
+        long start = System.nanoTime();
+        CodeSlicer.Graph graph = new CodeSlicer.Graph();
+        Random random = new Random(seed);
+        for (int i = 0; i < edgeCount; i++) {
+            graph.addEdge(method(src(random, methodCount)), method(dest(random, methodCount)));
+        }
+        long graphBuildMs = (System.nanoTime() - start) / 1000000;
+        long graphHeap = usedHeap() - before;
+
+        before = usedHeap();
+        start = System.nanoTime();
+        CompactGraph.Builder builder = new CompactGraph.Builder();
+        random = new Random(seed);
+        for (int i = 0; i < edgeCount; i++) {
+            builder.addEdge(method(src(random, methodCount)), method(dest(random, methodCount)));
+        }
+        CompactGraph compactGraph = builder.build();
+        long compactBuildMs = (System.nanoTime() - start) / 1000000;
+        long compactHeap = usedHeap() - before;
+
+        CodeSlicer.Method[] targets = new CodeSlicer.Method[QUERIES];
+        int[] targetIds = new int[QUERIES];
+        random = new Random(seed + 1);
+        for (int i = 0; i < QUERIES; i++) {
+            targets[i] = method(src(random, methodCount));
+            targetIds[i] = compactGraph.idOf(targets[i]);
+        }
+
+        long checksum = 0;
+        start = System.nanoTime();
+        for (CodeSlicer.Method target : targets) {
+            Set<CodeSlicer.Method> twoHops = CodeSlicer.getTwoHopsMethods(graph, target);
+            checksum += twoHops.size();
+        }
+        long graphQueryNs = (System.nanoTime() - start) / QUERIES;
+
+        long compactChecksum = 0;
+        start = System.nanoTime();
+        for (int targetId : targetIds) {
+            compactChecksum += compactGraph.getTwoHopsMethods(targetId).length;
+        }
+        long compactQueryNs = (System.nanoTime() - start) / QUERIES;
+
+        if (checksum != compactChecksum) {
+            throw new IllegalStateException("two-hop results differ: " + checksum + " vs " + compactChecksum);
+        }
+
+        System.out.printf("%-12s %12s %12s %16s%n", "store", "heap (MB)", "build (ms)", "2-hop (ns/op)");
+        System.out.printf("%-12s %12d %12d %16d%n", "Graph", graphHeap >> 20, graphBuildMs, graphQueryNs);
+        System.out.printf("%-12s %12d %12d %16d%n", "CompactGraph", compactHeap >> 20, compactBuildMs, compactQueryNs);
+        System.out.println("unique edges=" + compactGraph.edgeCount() + " two-hop results=" + checksum);
+
+        // keep both graphs reachable until the measurements are done
+        if (graph.getAdjMethods(targets[0]) == null || compactGraph.methodCount() < 0) {
+            System.out.println();
+        }
+    }
+
+    // a fresh set of strings per call, the way the text loader produces them for every line
+    private static CodeSlicer.Method method(int id) {
+        int classId = id % (PACKAGES * CLASSES_PER_PACKAGE);
+        return new CodeSlicer.Method(
+                new StringBuilder("org.apache.hadoop.module").append(classId % PACKAGES).toString(),
+                new StringBuilder("Class").append(classId).toString(),
+                new StringBuilder("method").append(id / (PACKAGES * CLASSES_PER_PACKAGE)).toString());
+    }
+
+    private static int src(Random random, int methodCount) {
+        double r = random.nextDouble();
+        return (int) (methodCount * r * r);
+    }
+
+    // heavily skewed towards low ids so a few hub methods collect most incoming edges
+    private static int dest(Random random, int methodCount) {
+        double r = random.nextDouble();
+        return (int) (methodCount * r * r * r * r);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
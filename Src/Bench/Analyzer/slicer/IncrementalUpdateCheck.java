@@ -0,0 +1,157 @@
+package Analyzer.slicer;
+
+import bench.SyntheticCallGraph;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+// Checks that applying a CallGraphDiff gives the same graph as loading the changed file from scratch, for
+// CodeSlicer.Graph and for CompactGraph including its reverse index, and compares the time of both. The
+// changed graph drops random edges and every edge of a few deleted methods (as -N: lines) and adds edges,
+// some of them to methods that did not exist before. Exits with status 1 on the first difference; the test
+// IncrementalUpdateTest makes the same comparison on a small graph under mvn test.
+//   java Analyzer.slicer.IncrementalUpdateCheck [edges] [changed edges] [seed]
+public class IncrementalUpdateCheck {
+    public static void main(String[] args) throws IOException {
+        int edgeCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        int changes = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+
+        Path oldFile = SyntheticCallGraph.cached(edgeCount, seed);
+        Path newFile = Files.createTempFile(SyntheticCallGraph.fixtureDir(), "callgraph-changed", ".txt");
+        Path diffFile = Files.createTempFile(SyntheticCallGraph.fixtureDir(), "callgraph", ".diff");
+        newFile.toFile().deleteOnExit();
+        diffFile.toFile().deleteOnExit();
+        Set<String> deletedMethods = writeChangedGraph(oldFile, newFile, edgeCount, changes, seed);
+        writeDiff(oldFile, newFile, diffFile, deletedMethods);
+
+        CallGraphLoader loader = new CallGraphLoader(Runtime.getRuntime().availableProcessors());
+        CodeSlicer.Graph graph = CodeSlicer.createGraphFromOutput(oldFile.toString());
+        CompactGraph compactGraph = loader.load(oldFile.toString());
+
+        long start = System.nanoTime();
+        CallGraphDiff diff = CallGraphDiff.load(diffFile.toString());
+        long parseMs = (System.nanoTime() - start) / 1000000;
+        start = System.nanoTime();
+        graph.applyDiff(diff);
+        long graphApplyMs = (System.nanoTime() - start) / 1000000;
+        start = System.nanoTime();
+        CompactGraph updated = compactGraph.applyDiff(diff);
+        long compactApplyMs = (System.nanoTime() - start) / 1000000;
+
+        start = System.nanoTime();
+        CodeSlicer.Graph reloadedGraph = CodeSlicer.createGraphFromOutput(newFile.toString());
+        long graphReloadMs = (System.nanoTime() - start) / 1000000;
+        start = System.nanoTime();
+        CompactGraph reloaded = loader.load(newFile.toString());
+        long compactReloadMs = (System.nanoTime() - start) / 1000000;
+
+        if (!graph.getEntries().equals(reloadedGraph.getEntries())) {
+            fail("Graph with the diff applied differs from the reloaded graph");
+        }
+        compare(updated, reloaded);
+
+        System.out.println("edges=" + reloaded.edgeCount() + " methods=" + reloaded.methodCount() + " diff: +"
+                + diff.getAddedEdges().size() + " -" + diff.getRemovedEdges().size() + " -N " + diff.getRemovedMethods().size()
+                + ", parsed in " + parseMs + " ms");
+        System.out.printf("%-12s %12s %12s%n", "store", "apply (ms)", "reload (ms)");
+        System.out.printf("%-12s %12d %12d%n", "Graph", graphApplyMs, graphReloadMs);
+        System.out.printf("%-12s %12d %12d%n", "CompactGraph", compactApplyMs, compactReloadMs);
+        System.out.println("OK");
+    }
+
+    // ids may differ between the two, so every method is compared by its callees and callers
+    private static void compare(CompactGraph updated, CompactGraph reloaded) {
+        if (updated.methodCount() != reloaded.methodCount() || updated.edgeCount() != reloaded.edgeCount()) {
+            fail("CompactGraph with the diff applied has " + updated.methodCount() + " methods and " + updated.edgeCount()
+                    + " edges, the reloaded one " + reloaded.methodCount() + " and " + reloaded.edgeCount());
+        }
+        for (int id = 0; id < reloaded.methodCount(); id++) {
+            CodeSlicer.Method method = reloaded.methodOf(id);
+            int updatedId = updated.idOf(method);
+            if (updatedId < 0) {
+                fail("missing after the diff: " + method);
+            }
+            if (!updated.toMethods(updated.getAdjMethods(updatedId)).equals(reloaded.toMethods(reloaded.getAdjMethods(id)))) {
+                fail("callees differ for " + method);
+            }
+            if (!updated.toMethods(updated.getCallers(updatedId)).equals(reloaded.toMethods(reloaded.getCallers(id)))) {
+                fail("callers differ for " + method);
+            }
+        }
+    }
+
+    // drops `changes` random lines and every line of changes / 50 deleted methods, then appends up to `changes`
+    // lines, a tenth of them calling new methods; returns the deleted methods' signatures
+    private static Set<String> writeChangedGraph(Path oldFile, Path newFile, int edgeCount, int changes, long seed) throws IOException {
+        List<String> lines = Files.readAllLines(oldFile, StandardCharsets.UTF_8);
+        int methodCount = SyntheticCallGraph.methodCount(edgeCount);
+        Random random = new Random(seed + 2);
+        Set<String> deletedMethods = new HashSet<>();
+        while (deletedMethods.size() < Math.max(1, changes / 50)) {
+            deletedMethods.add(SyntheticCallGraph.signature(random.nextInt(methodCount)));
+        }
+        Set<Integer> droppedLines = new HashSet<>();
+        while (droppedLines.size() < Math.min(changes, lines.size())) {
+            droppedLines.add(random.nextInt(lines.size()));
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(newFile, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i);
+                if (!droppedLines.contains(i) && !deletedMethods.contains(caller(line)) && !deletedMethods.contains(callee(line))) {
+                    out.write(line);
+                    out.write('\n');
+                }
+            }
+            // an added edge of a deleted method could be one of its old edges, which the edge diff leaves out
+            for (int i = 0; i < changes; i++) {
+                String caller = SyntheticCallGraph.signature(random.nextInt(methodCount));
+                String callee = SyntheticCallGraph.signature(i % 10 == 0 ? methodCount + random.nextInt(methodCount) : random.nextInt(methodCount));
+                if (!deletedMethods.contains(caller) && !deletedMethods.contains(callee)) {
+                    out.write("M:" + caller + " (M)" + callee + "\n");
+                }
+            }
+        }
+        return deletedMethods;
+    }
+
+    // the edge diff of the two files, with the removals of deleted methods' edges replaced by -N: lines
+    private static void writeDiff(Path oldFile, Path newFile, Path diffFile, Set<String> deletedMethods) throws IOException {
+        StringWriter edges = new StringWriter();
+        CallGraphDiff.write(oldFile.toString(), newFile.toString(), edges);
+        List<String> lines = new ArrayList<>();
+        for (String method : deletedMethods) {
+            lines.add(CallGraphDiff.REMOVED_METHOD + method);
+        }
+        for (String line : edges.toString().split("\n")) {
+            if (line.startsWith("-")
+                    && (deletedMethods.contains(caller(line.substring(1))) || deletedMethods.contains(callee(line.substring(1))))) {
+                continue;
+            }
+            lines.add(line);
+        }
+        Files.write(diffFile, lines, StandardCharsets.UTF_8);
+    }
+
+    private static void fail(String message) {
+        System.out.println("FAIL: " + message);
+        System.exit(1);
+    }
+
+    private static String caller(String line) {
+        return line.substring(2, line.indexOf(' '));
+    }
+
+    private static String callee(String line) {
+        return line.substring(line.indexOf(' ') + 4);
+    }
+}
@@ -0,0 +1,176 @@
+package Analyzer.slicer;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Builds the SCC condensation and reachability index on a synthetic call graph and compares "can A reach B"
+// latency against a breadth-first search per query, checking that both agree. "layered" graphs call a little
+// further down a long chain of layers with a few calls back up, the worst case for interval labels because
+// nearly every method upstream of a target reaches it; "powerlaw" graphs send most calls to a few hub methods,
+// like real call graphs. Run with a large heap, e.g.
+//   java -Xmx4g Analyzer.slicer.ReachabilityBenchmark 2000000 3 layered
+public class ReachabilityBenchmark {
+    private static final int QUERIES = 20000;
+    private static final int SEARCH_QUERIES = 200;
+    // most calls go a little "down" the layering, a few go back up and close cycles
+    private static final int FORWARD_SPAN = 5000;
+    private static final double BACK_EDGE_RATE = 0.02;
+
+    public static void main(String[] args) {
+        int methodCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+        int averageDegree = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        String shape = args.length > 2 ? args[2] : "layered";
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42L;
+
+        long start = System.nanoTime();
+        CompactGraph graph = generate(methodCount, averageDegree, "powerlaw".equals(shape), new Random(seed));
+        System.out.println(shape + " methods=" + graph.methodCount() + " edges=" + graph.edgeCount()
+                + " generated in " + (System.nanoTime() - start) / 1000000 + " ms");
+
+        long before = usedHeap();
+        start = System.nanoTime();
+        ReachabilityIndex index = new ReachabilityIndex(graph);
+        long buildMs = (System.nanoTime() - start) / 1000000;
+        long indexHeap = usedHeap() - before;
+        int largest = 0;
+        for (int c = 0; c < index.componentCount(); c++) {
+            largest = Math.max(largest, index.componentSize(c));
+        }
+        System.out.println("components=" + index.componentCount() + " largest=" + largest
+                + " condensed edges=" + index.condensedEdgeCount());
+        System.out.println("index build " + buildMs + " ms, ~" + (indexHeap >> 20) + " MB");
+
+        Random random = new Random(seed + 1);
+        int[][] uniform = new int[QUERIES][];
+        int[][] walks = new int[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            uniform[i] = new int[]{random.nextInt(methodCount), random.nextInt(methodCount)};
+            walks[i] = randomWalk(graph, random.nextInt(methodCount), 1 + random.nextInt(20), random);
+        }
+
+        Bfs bfs = new Bfs(graph);
+        report("uniform pairs", index, bfs, uniform);
+        report("random-walk pairs", index, bfs, walks);
+    }
+
+    private static void report(String name, ReachabilityIndex index, Bfs bfs, int[][] pairs) {
+        // warm up and count positives
+        int positives = 0;
+        for (int[] pair : pairs) {
+            if (index.reaches(pair[0], pair[1])) {
+                positives++;
+            }
+        }
+        long start = System.nanoTime();
+        int checksum = 0;
+        for (int[] pair : pairs) {
+            checksum += index.reaches(pair[0], pair[1]) ? 1 : 0;
+        }
+        long indexNs = (System.nanoTime() - start) / pairs.length;
+
+        start = System.nanoTime();
+        for (int i = 0; i < SEARCH_QUERIES; i++) {
+            boolean expected = bfs.reaches(pairs[i][0], pairs[i][1]);
+            if (expected != index.reaches(pairs[i][0], pairs[i][1])) {
+                throw new IllegalStateException("index and search disagree on " + Arrays.toString(pairs[i]));
+            }
+        }
+        long searchNs = (System.nanoTime() - start) / SEARCH_QUERIES;
+
+        System.out.printf("%-18s positives %5.1f%%  index %8d ns/query  bfs %12d ns/query%n",
+                name, 100.0 * positives / pairs.length, indexNs, searchNs);
+        if (checksum != positives) {
+            System.out.println();
+        }
+    }
+
+    private static CompactGraph generate(int methodCount, int averageDegree, boolean powerLaw, Random random) {
+        int[] offsets = new int[methodCount + 1];
+        int[] targets = new int[methodCount * averageDegree * 2];
+        int edgeCount = 0;
+        int[] row = new int[averageDegree * 4];
+        for (int id = 0; id < methodCount; id++) {
+            offsets[id] = edgeCount;
+            int degree = random.nextInt(averageDegree * 2 + 1);
+            int rowSize = 0;
+            for (int d = 0; d < degree; d++) {
+                int target;
+                if (powerLaw) {
+                    // heavily skewed towards low ids so a few hub methods collect most incoming edges
+                    double r = random.nextDouble();
+                    target = (int) (methodCount * r * r * r * r);
+                } else if (random.nextDouble() < BACK_EDGE_RATE) {
+                    target = Math.max(0, id - 1 - random.nextInt(FORWARD_SPAN));
+                } else {
+                    target = id + 1 + random.nextInt(FORWARD_SPAN);
+                }
+                if (target < methodCount) {
+                    row[rowSize++] = target;
+                }
+            }
+            Arrays.sort(row, 0, rowSize);
+            for (int i = 0; i < rowSize; i++) {
+                if (i == 0 || row[i] != row[i - 1]) {
+                    targets[edgeCount++] = row[i];
+                }
+            }
+        }
+        offsets[methodCount] = edgeCount;
+        return new CompactGraph(new MethodTable(), offsets, Arrays.copyOf(targets, edgeCount));
+    }
+
+    private static int[] randomWalk(CompactGraph graph, int from, int steps, Random random) {
+        int node = from;
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        for (int i = 0; i < steps && offsets[node + 1] > offsets[node]; i++) {
+            node = targets[offsets[node] + random.nextInt(offsets[node + 1] - offsets[node])];
+        }
+        return new int[]{from, node};
+    }
+
+    // what answering the question costs without an index
+    private static class Bfs {
+        private final int[] offsets;
+        private final int[] targets;
+        private final int[] visited;
+        private final int[] queue;
+        private int stamp;
+
+        Bfs(CompactGraph graph) {
+            this.offsets = graph.getOffsets();
+            this.targets = graph.getTargets();
+            this.visited = new int[graph.methodCount()];
+            this.queue = new int[graph.methodCount()];
+        }
+
+        boolean reaches(int from, int to) {
+            stamp++;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = from;
+            visited[from] = stamp;
+            while (head < tail) {
+                int node = queue[head++];
+                if (node == to) {
+                    return true;
+                }
+                for (int e = offsets[node]; e < offsets[node + 1]; e++) {
+                    if (visited[targets[e]] != stamp) {
+                        visited[targets[e]] = stamp;
+                        queue[tail++] = targets[e];
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
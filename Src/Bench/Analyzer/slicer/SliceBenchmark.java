@@ -0,0 +1,82 @@
+package Analyzer.slicer;
+
+import bench.SyntheticCallGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+
+// Slicing queries against a loaded synthetic call graph. Every invocation answers one query; targets cycle
+// through a fixed random sample of methods so hubs and leaves are mixed the same way in every run.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class SliceBenchmark {
+    private static final int TARGETS = 4096;
+
+    @Param({"graph", "compact", "compactMethods", "neighborhood"})
+    String slice;
+
+    @Param({"1000000"})
+    int edges;
+
+    @Param({"42"})
+    long seed;
+
+    private IntUnaryOperator query;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        query = slice(slice, edges, seed);
+    }
+
+    @Benchmark
+    public int query() {
+        return query.applyAsInt(next++);
+    }
+
+    // "graph" and "compactMethods" answer two-hop slices with Method sets, "compact" with method ids,
+    // "neighborhood" runs a two-level NeighborhoodQuery in both directions; each returns the result size
+    private static IntUnaryOperator slice(String kind, int edges, long seed) throws IOException {
+        String callGraphFile = SyntheticCallGraph.cached(edges, seed).toString();
+        CompactGraph compactGraph = new CallGraphLoader(Runtime.getRuntime().availableProcessors()).load(callGraphFile);
+        Random random = new Random(seed + 1);
+        int[] targetIds = new int[TARGETS];
+        CodeSlicer.Method[] targets = new CodeSlicer.Method[TARGETS];
+        for (int i = 0; i < TARGETS; i++) {
+            targetIds[i] = random.nextInt(compactGraph.methodCount());
+            targets[i] = compactGraph.methodOf(targetIds[i]);
+        }
+        switch (kind) {
+            case "graph":
+                CodeSlicer.Graph graph = CodeSlicer.createGraphFromOutput(callGraphFile);
+                return i -> CodeSlicer.getTwoHopsMethods(graph, targets[i & (TARGETS - 1)]).size();
+            case "compact":
+                return i -> compactGraph.getTwoHopsMethods(targetIds[i & (TARGETS - 1)]).length;
+            case "compactMethods":
+                return i -> compactGraph.getTwoHopsMethods(targets[i & (TARGETS - 1)]).size();
+            case "neighborhood":
+                NeighborhoodQuery query = new NeighborhoodQuery(compactGraph).direction(NeighborhoodQuery.Direction.BOTH).maxDepth(2);
+                return i -> query.run(targetIds[i & (TARGETS - 1)]);
+            default:
+                throw new IllegalArgumentException("unknown slice: " + kind);
+        }
+    }
+}
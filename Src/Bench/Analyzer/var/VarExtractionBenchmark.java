@@ -0,0 +1,125 @@
+package Analyzer.var;
+
+import bench.SyntheticCallGraph;
+import bench.SyntheticSourceTree;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.FileASTRequestor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+// Available-variable extraction over files spread across the generated tree, parsing with bindings included:
+// AvaVarList's batch mode (one createASTs call) against one createAST call per file.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class VarExtractionBenchmark {
+    @Param({"batch", "single"})
+    String mode;
+
+    @Param({"2000"})
+    int classes;
+
+    @Param({"200"})
+    int files;
+
+    @Param({"42"})
+    long seed;
+
+    private Callable<Object> extract;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        extract = extractVariables(mode, classes, files, seed);
+    }
+
+    @Benchmark
+    public Object extract() throws Exception {
+        return extract.call();
+    }
+
+    // AvaVarList over `files` classes spread across the tree, writing jsonl to a temp file: "batch" parses them
+    // in one createASTs call as -b does, "single" makes one createAST call per file as -i does. Bindings are
+    // only usable while the parser runs, so parsing cannot be left out of the measurement.
+    private static Callable<Object> extractVariables(String kind, int classes, int files, long seed) throws IOException {
+        Path root = SyntheticSourceTree.cached(classes, seed);
+        int count = Math.min(files, classes);
+        String[] sourceFiles = new String[count];
+        for (int i = 0; i < count; i++) {
+            sourceFiles[i] = SyntheticSourceTree.fileOf(root, (int) ((long) i * classes / count)).toString();
+        }
+        Set<String> methodNames = new HashSet<>();
+        for (int m = 0; m < SyntheticCallGraph.METHODS_PER_CLASS; m++) {
+            methodNames.add("m" + m);
+        }
+        Path output = Files.createTempFile("avavarlist", ".jsonl");
+        output.toFile().deleteOnExit();
+
+        switch (kind) {
+            case "batch":
+                return () -> {
+                    InheritedFieldCache inheritedFields = new InheritedFieldCache();
+                    try (VarOutput out = new VarOutput(output.toString(), "jsonl")) {
+                        parser(root).createASTs(sourceFiles, null, new String[0], new FileASTRequestor() {
+                            @Override
+                            public void acceptAST(String sourceFilePath, CompilationUnit cu) {
+                                out.beginFile(sourceFilePath);
+                                AvaVarList.collectVariables(cu, methodNames, out, inheritedFields);
+                            }
+                        }, null);
+                    }
+                    return Files.size(output);
+                };
+            case "single":
+                return () -> {
+                    InheritedFieldCache inheritedFields = new InheritedFieldCache();
+                    try (VarOutput out = new VarOutput(output.toString(), "jsonl")) {
+                        for (String sourceFile : sourceFiles) {
+                            ASTParser astParser = parser(root);
+                            astParser.setUnitName(sourceFile);
+                            astParser.setSource(new String(Files.readAllBytes(Paths.get(sourceFile))).toCharArray());
+                            out.beginFile(sourceFile);
+                            AvaVarList.collectVariables((CompilationUnit) astParser.createAST(null), methodNames, out, inheritedFields);
+                        }
+                    }
+                    return Files.size(output);
+                };
+            default:
+                throw new IllegalArgumentException("unknown variable extraction: " + kind);
+        }
+    }
+
+    private static ASTParser parser(Path sourceRoot) {
+        ASTParser astParser = ASTParser.newParser(AST.JLS14);
+        astParser.setResolveBindings(true);
+        astParser.setBindingsRecovery(true);
+        astParser.setKind(ASTParser.K_COMPILATION_UNIT);
+        astParser.setCompilerOptions(JavaCore.getOptions());
+        astParser.setEnvironment(new String[0], new String[]{sourceRoot.toString()}, new String[]{""}, true);
+        return astParser;
+    }
+}
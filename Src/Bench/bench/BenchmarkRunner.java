@@ -0,0 +1,30 @@
+package bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Runs the JMH suite (Analyzer.slicer.CallGraphBenchmark and SliceBenchmark, MethodLookupBenchmark in this
+// package, Analyzer.var.VarExtractionBenchmark) with the GC profiler for allocation rate and PeakHeapProfiler for
+// peak heap, and writes bench-results.json. Benchmarks sit in the package of the code they measure. The jmh
+// module builds a runnable jar with the generated benchmark list:
+//   mvn -B package
+//   java -jar Src/target/jmh/benchmarks.jar [JMH options, e.g. SliceBenchmark -p edges=3000000]
+// Fixtures are generated once per parameter set under java.io.tmpdir/sclogger-bench.
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .addProfiler(PeakHeapProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("bench-results.json")
+                .build();
+        new Runner(options).run();
+    }
+}
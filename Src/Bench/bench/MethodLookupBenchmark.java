@@ -0,0 +1,142 @@
+package bench;
+
+import Analyzer.slicer.CodeSlicer;
+import Analyzer.util.MethodFinder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+
+// MethodFinder over a generated source tree: indexing the whole tree, cold and from the persistent index,
+// and per-method lookups of call-graph methods once the index is built.
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class MethodLookupBenchmark {
+    private static final int TARGETS = 4096;
+
+    @State(Scope.Benchmark)
+    public static class Indexing {
+        @Param({"cold", "warm"})
+        String index;
+
+        @Param({"2000"})
+        int classes;
+
+        @Param({"42"})
+        long seed;
+
+        Callable<Object> analyze;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            analyze = indexMethods(index, classes, seed);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Lookup {
+        @Param({"find", "source"})
+        String lookup;
+
+        @Param({"2000"})
+        int classes;
+
+        @Param({"42"})
+        long seed;
+
+        IntUnaryOperator query;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            query = lookupMethods(lookup, classes, seed);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public Object analyze(Indexing state) throws Exception {
+        return state.analyze.call();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public int lookup(Lookup state) {
+        return state.query.applyAsInt(state.next++);
+    }
+
+    // "cold" parses the whole tree, "warm" reuses the persistent method index written during setup
+    private static Callable<Object> indexMethods(String kind, int classes, long seed) throws IOException {
+        String sourceRoot = SyntheticSourceTree.cached(classes, seed).toString();
+        File indexFile = SyntheticCallGraph.fixtureDir().resolve("methods-" + classes + "-" + seed + ".idx").toFile();
+        switch (kind) {
+            case "cold":
+                return () -> {
+                    MethodFinder finder = new MethodFinder(sourceRoot);
+                    finder.analyze();
+                    return finder;
+                };
+            case "warm":
+                methodFinder(sourceRoot, indexFile);
+                return () -> methodFinder(sourceRoot, indexFile);
+            default:
+                throw new IllegalArgumentException("unknown method indexing: " + kind);
+        }
+    }
+
+    // "find" returns index entries, "source" also reads the method sources, both for call-graph methods;
+    // each returns the number of matches
+    private static IntUnaryOperator lookupMethods(String kind, int classes, long seed) throws IOException {
+        String sourceRoot = SyntheticSourceTree.cached(classes, seed).toString();
+        File indexFile = SyntheticCallGraph.fixtureDir().resolve("methods-" + classes + "-" + seed + ".idx").toFile();
+        MethodFinder finder = methodFinder(sourceRoot, indexFile);
+        Random random = new Random(seed + 1);
+        CodeSlicer.Method[] targets = new CodeSlicer.Method[TARGETS];
+        for (int i = 0; i < TARGETS; i++) {
+            targets[i] = CodeSlicer.Method.parseMethod(
+                    SyntheticCallGraph.signature(random.nextInt(classes * SyntheticCallGraph.METHODS_PER_CLASS)));
+        }
+        switch (kind) {
+            case "find":
+                return i -> {
+                    CodeSlicer.Method m = targets[i & (TARGETS - 1)];
+                    return finder.findMethods(m.getPackageName(), m.getClassName(), m.getMethodName(), m.getParameters()).size();
+                };
+            case "source":
+                return i -> {
+                    CodeSlicer.Method m = targets[i & (TARGETS - 1)];
+                    return finder.getMethodSources(m.getPackageName(), m.getClassName(), m.getMethodName(), m.getParameters()).size();
+                };
+            default:
+                throw new IllegalArgumentException("unknown method lookup: " + kind);
+        }
+    }
+
+    private static MethodFinder methodFinder(String sourceRoot, File indexFile) {
+        MethodFinder finder = new MethodFinder(sourceRoot);
+        finder.setIndexFile(indexFile);
+        finder.analyze();
+        return finder;
+    }
+}
@@ -0,0 +1,76 @@
+package bench;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+// Writes a reproducible java-callgraph file: callers get a Pareto-distributed number of callees (most methods
+// call a few others, a handful call hundreds) and callees are drawn with a strong skew towards hub methods.
+// Method names line up with SyntheticSourceTree, so slices of this graph resolve to generated sources.
+//   java bench.SyntheticCallGraph <output file> [edges] [seed]
+public class SyntheticCallGraph {
+    public static final int CLASSES_PER_PACKAGE = 50;
+    public static final int METHODS_PER_CLASS = 20;
+    private static final double FAN_OUT_ALPHA = 1.5;
+    private static final int MAX_FAN_OUT = 1000;
+
+    public static void main(String[] args) throws IOException {
+        int edgeCount = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+        write(Paths.get(args[0]), edgeCount, seed);
+    }
+
+    public static int methodCount(int edgeCount) {
+        return Math.max(1000, edgeCount / 6);
+    }
+
+    // "org.gen.p3.C170:m4(int,java.lang.String)"
+    public static String signature(int methodId) {
+        int classId = methodId / METHODS_PER_CLASS;
+        return "org.gen.p" + classId / CLASSES_PER_PACKAGE + ".C" + classId + ":m" + methodId % METHODS_PER_CLASS
+                + "(int,java.lang.String)";
+    }
+
+    // generated once per (edges, seed) under java.io.tmpdir and reused by later runs and forks
+    public static Path cached(int edgeCount, long seed) throws IOException {
+        Path file = fixtureDir().resolve("callgraph-" + edgeCount + "-" + seed + ".txt");
+        if (!Files.isRegularFile(file)) {
+            Path temp = Files.createTempFile(fixtureDir(), "callgraph", ".tmp");
+            write(temp, edgeCount, seed);
+            Files.move(temp, file);
+        }
+        return file;
+    }
+
+    public static Path fixtureDir() throws IOException {
+        return Files.createDirectories(Paths.get(System.getProperty("java.io.tmpdir"), "sclogger-bench"));
+    }
+
+    static void write(Path file, int edgeCount, long seed) throws IOException {
+        int methodCount = methodCount(edgeCount);
+        Random random = new Random(seed);
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            int written = 0;
+            while (written < edgeCount) {
+                int caller = random.nextInt(methodCount);
+                String callerSignature = signature(caller);
+                int fanOut = Math.min(Math.min(MAX_FAN_OUT, edgeCount - written),
+                        (int) Math.ceil(1 / Math.pow(1 - random.nextDouble(), 1 / FAN_OUT_ALPHA)));
+                for (int i = 0; i < fanOut; i++) {
+                    double r = random.nextDouble();
+                    int callee = (int) (methodCount * r * r * r * r);
+                    out.write("M:");
+                    out.write(callerSignature);
+                    out.write(" (M)");
+                    out.write(signature(callee));
+                    out.write('\n');
+                }
+                written += fanOut;
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package bench;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+// Writes a reproducible Java source tree matching SyntheticCallGraph's method names: class C<n> lives in
+// package org.gen.p<n / CLASSES_PER_PACKAGE>, declares fields, extends the previous class of its package every
+// few classes (so inherited fields exist), and has METHODS_PER_CLASS methods m<k>(int, String) with a mix of
+// locals, loops and calls, plus an overload and a nested class.
+//   java bench.SyntheticSourceTree <output dir> [classes] [seed]
+public class SyntheticSourceTree {
+    private static final int INHERITANCE_RUN = 4;
+
+    public static void main(String[] args) throws IOException {
+        int classCount = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+        write(Paths.get(args[0]), classCount, seed);
+    }
+
+    // generated once per (classes, seed) under java.io.tmpdir and reused by later runs and forks
+    public static Path cached(int classCount, long seed) throws IOException {
+        Path root = SyntheticCallGraph.fixtureDir().resolve("sources-" + classCount + "-" + seed);
+        if (!Files.isDirectory(root)) {
+            Path temp = Files.createTempDirectory(SyntheticCallGraph.fixtureDir(), "sources");
+            write(temp, classCount, seed);
+            Files.move(temp, root);
+        }
+        return root;
+    }
+
+    public static Path fileOf(Path root, int classId) {
+        return root.resolve("org/gen/p" + classId / SyntheticCallGraph.CLASSES_PER_PACKAGE + "/C" + classId + ".java");
+    }
+
+    static void write(Path root, int classCount, long seed) throws IOException {
+        Random random = new Random(seed);
+        for (int classId = 0; classId < classCount; classId++) {
+            Path file = fileOf(root, classId);
+            Files.createDirectories(file.getParent());
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                writeClass(out, classId, random);
+            }
+        }
+    }
+
+    private static void writeClass(BufferedWriter out, int classId, Random random) throws IOException {
+        int packageId = classId / SyntheticCallGraph.CLASSES_PER_PACKAGE;
+        boolean extendsPrevious = classId % INHERITANCE_RUN != 0 && classId % SyntheticCallGraph.CLASSES_PER_PACKAGE != 0;
+        out.write("package org.gen.p" + packageId + ";\n\n");
+        out.write("import java.util.ArrayList;\nimport java.util.List;\n\n");
+        out.write("public class C" + classId + (extendsPrevious ? " extends C" + (classId - 1) : "") + " {\n");
+        out.write("    protected int count" + classId + ";\n");
+        out.write("    private String name" + classId + " = \"C" + classId + "\";\n");
+        out.write("    protected final List<String> items" + classId + " = new ArrayList<>();\n\n");
+
+        for (int m = 0; m < SyntheticCallGraph.METHODS_PER_CLASS; m++) {
+            out.write("    public int m" + m + "(int a, String b) {\n");
+            out.write("        int x = a + count" + classId + ";\n");
+            out.write("        List<String> local = new ArrayList<>();\n");
+            int loops = 1 + random.nextInt(3);
+            for (int l = 0; l < loops; l++) {
+                out.write("        for (int k" + l + " = 0; k" + l + " < a; k" + l + "++) {\n");
+                out.write("            String s" + l + " = b + k" + l + ";\n");
+                out.write("            local.add(s" + l + ");\n");
+                out.write("        }\n");
+            }
+            if (m + 1 < SyntheticCallGraph.METHODS_PER_CLASS) {
+                out.write("        if (x > " + random.nextInt(100) + ") {\n");
+                out.write("            x += m" + (m + 1) + "(a - 1, name" + classId + ");\n");
+                out.write("        }\n");
+            }
+            out.write("        return x + local.size();\n");
+            out.write("    }\n\n");
+        }
+
+        out.write("    public int m0(String b) {\n        return m0(b.length(), b);\n    }\n\n");
+        out.write("    static class Inner {\n        void d() { }\n    }\n");
+        out.write("}\n");
+    }
+}
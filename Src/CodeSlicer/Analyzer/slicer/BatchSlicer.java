@@ -0,0 +1,124 @@
+package Analyzer.slicer;
+
+import Analyzer.util.MethodFinder;
+import Analyzer.util.Metrics;
+import Analyzer.util.SnippetStore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+// Slices many target methods against one loaded call graph and one source index. Targets are sliced on a
+// worker pool and written as one JSON line each, in input order.
+public class BatchSlicer {
+    private final Function<CodeSlicer.Method, Set<CodeSlicer.Method>> slice;
+    private final MethodFinder analyzer;
+    private final int threads;
+    private final ObjectMapper mapper = new ObjectMapper();
+    // when set, records carry "sourceIds" into the store instead of the sources themselves
+    private SnippetStore snippets;
+
+    public BatchSlicer(Function<CodeSlicer.Method, Set<CodeSlicer.Method>> slice, MethodFinder analyzer, int threads) {
+        this.slice = slice;
+        this.analyzer = analyzer;
+        this.threads = Math.max(1, threads);
+    }
+
+    public void setSnippetStore(SnippetStore snippets) {
+        this.snippets = snippets;
+    }
+
+    void run(BufferedReader targets, PrintStream out) throws IOException {
+        List<String> signatures = new ArrayList<>();
+        String line;
+        while ((line = targets.readLine()) != null) {
+            line = line.trim();
+            if (!line.isEmpty()) {
+                signatures.add(line);
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> results = new ArrayList<>(signatures.size());
+            for (String signature : signatures) {
+                results.add(executor.submit(() -> slice(signature)));
+            }
+            for (Future<String> result : results) {
+                String record = result.get();
+                out.println(record);
+                Metrics.add("batch.outputChars", record.length() + 1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while slicing", e);
+        } catch (ExecutionException e) {
+            throw new IOException("slicing failed", e.getCause());
+        } finally {
+            executor.shutdown();
+            out.flush();
+        }
+    }
+
+    String slice(String signature) throws JsonProcessingException {
+        long start = Metrics.start();
+        try {
+            return mapper.writeValueAsString(sliceRecord(signature));
+        } finally {
+            Metrics.stop("batch.slice", start);
+        }
+    }
+
+    // the record of one target, before serialization
+    public Map<String, Object> sliceRecord(String signature) {
+        Metrics.increment("batch.targets");
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("target", signature);
+
+        CodeSlicer.Method targetMethod;
+        try {
+            targetMethod = CodeSlicer.Method.parseMethod(signature);
+        } catch (IndexOutOfBoundsException e) {
+            Metrics.increment("failures.batch.malformedTarget");
+            record.put("error", "malformed method signature");
+            return record;
+        }
+
+        List<Map<String, Object>> methods = new ArrayList<>();
+        for (CodeSlicer.Method method : slice.apply(targetMethod)) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("package", method.getPackageName());
+            entry.put("class", method.getClassName());
+            entry.put("method", method.getMethodName());
+            if (method.getParameters() != null) {
+                entry.put("parameters", method.getParameters());
+            }
+            List<String> sources = analyzer.getMethodSources(method.getPackageName(), method.getClassName(), method.getMethodName(),
+                    method.getParameters());
+            if (snippets == null) {
+                entry.put("sources", sources);
+            } else {
+                List<String> ids = new ArrayList<>(sources.size());
+                for (String source : sources) {
+                    ids.add(snippets.put(source));
+                }
+                entry.put("sourceIds", ids);
+            }
+            methods.add(entry);
+        }
+        record.put("slice", methods);
+        return record;
+    }
+}
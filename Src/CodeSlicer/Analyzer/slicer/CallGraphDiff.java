@@ -0,0 +1,135 @@
+package Analyzer.slicer;
+
+import Analyzer.util.Metrics;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Edges and methods to take out of a call graph and edges to put in, so a resident graph can follow a
+// changed call-graph file without reloading all of it. A diff file holds call-graph lines prefixed with '-'
+// (remove the edge) or '+' (add it), and "-N:pkg.Class:name(params)" lines that remove a method with every
+// edge from or to it. The output of `diff -u old new` is accepted as it is: headers, hunk markers, context
+// lines and C: lines are skipped. Lines are taken as a set, so call-graph files should not repeat lines.
+//   java Analyzer.slicer.CallGraphDiff old.txt new.txt > changes.diff
+class CallGraphDiff {
+    static final String REMOVED_METHOD = "-N:";
+
+    private final List<CodeSlicer.Method[]> addedEdges = new ArrayList<>();
+    private final List<CodeSlicer.Method[]> removedEdges = new ArrayList<>();
+    private final List<CodeSlicer.Method> removedMethods = new ArrayList<>();
+    private int malformedLines;
+
+    List<CodeSlicer.Method[]> getAddedEdges() {
+        return addedEdges;
+    }
+
+    List<CodeSlicer.Method[]> getRemovedEdges() {
+        return removedEdges;
+    }
+
+    List<CodeSlicer.Method> getRemovedMethods() {
+        return removedMethods;
+    }
+
+    int getMalformedLines() {
+        return malformedLines;
+    }
+
+    boolean isEmpty() {
+        return addedEdges.isEmpty() && removedEdges.isEmpty() && removedMethods.isEmpty();
+    }
+
+    static CallGraphDiff load(String filename) throws IOException {
+        CallGraphDiff diff = new CallGraphDiff();
+        long start = Metrics.start();
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(filename), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                diff.addLine(line);
+            }
+        } finally {
+            Metrics.stop("callgraph.diff.load", start);
+        }
+        if (diff.malformedLines > 0) {
+            System.err.println("Skipped " + diff.malformedLines + " malformed lines in " + filename);
+        }
+        Metrics.add("callgraph.diff.added", diff.addedEdges.size());
+        Metrics.add("callgraph.diff.removed", diff.removedEdges.size());
+        Metrics.add("callgraph.diff.removedMethods", diff.removedMethods.size());
+        return diff;
+    }
+
+    private void addLine(String line) {
+        if (line.startsWith("+++") || line.startsWith("---")) {
+            return;
+        }
+        try {
+            if (line.startsWith(REMOVED_METHOD)) {
+                removedMethods.add(CodeSlicer.Method.parseMethod(line.substring(REMOVED_METHOD.length()).trim()));
+            } else if (line.startsWith("-M:")) {
+                removedEdges.add(CodeSlicer.parseEdge(line.substring(1)));
+            } else if (line.startsWith("+M:")) {
+                addedEdges.add(CodeSlicer.parseEdge(line.substring(1)));
+            }
+        } catch (IndexOutOfBoundsException e) {
+            malformedLines++;
+        }
+    }
+
+    // the M: lines only in oldFile as removals, then those only in newFile as additions
+    static void write(String oldFile, String newFile, Writer out) throws IOException {
+        Set<String> oldLines = edgeLines(oldFile);
+        Set<String> newLines = edgeLines(newFile);
+        for (String line : oldLines) {
+            if (!newLines.contains(line)) {
+                out.write('-');
+                out.write(line);
+                out.write('\n');
+            }
+        }
+        for (String line : newLines) {
+            if (!oldLines.contains(line)) {
+                out.write('+');
+                out.write(line);
+                out.write('\n');
+            }
+        }
+    }
+
+    private static Set<String> edgeLines(String filename) throws IOException {
+        Set<String> lines = new LinkedHashSet<>();
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(filename), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("M:")) {
+                    lines.add(line.trim());
+                }
+            }
+        }
+        return Collections.unmodifiableSet(lines);
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("usage: CallGraphDiff <old call graph> <new call graph>");
+            System.exit(1);
+        }
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+            write(args[0], args[1], out);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package Analyzer.slicer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Loads java-callgraph output into a CompactGraph. The file is memory-mapped in chunks that end on line
+// boundaries, every chunk is parsed on its own thread straight from the mapped bytes into chunk-local
+// symbol and method tables, and the chunks are merged into the graph in file order.
+class CallGraphLoader {
+    private static final int MAX_CHUNK_SIZE = 64 << 20;
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+    private static final int MAX_REPORTED_LINES = 10;
+
+    private final int threads;
+    private long malformedLines;
+    private long skippedLines;
+
+    CallGraphLoader(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    long getMalformedLines() {
+        return malformedLines;
+    }
+
+    long getSkippedLines() {
+        return skippedLines;
+    }
+
+    CompactGraph load(String filename) throws IOException {
+        CompactGraph.Builder builder = new CompactGraph.Builder();
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel);
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, bounds.length));
+            try {
+                List<Future<Chunk>> futures = new ArrayList<>();
+                for (int i = 0; i + 1 < bounds.length; i++) {
+                    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, bounds[i], bounds[i + 1] - bounds[i]);
+                    futures.add(executor.submit(() -> new Chunk(buffer).parse()));
+                }
+                long firstLine = 1;
+                for (Future<Chunk> future : futures) {
+                    Chunk chunk = future.get();
+                    chunk.mergeInto(builder, firstLine);
+                    firstLine += chunk.lineCount;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted while loading " + filename, e);
+            } catch (ExecutionException e) {
+                throw new IOException("failed to parse " + filename, e.getCause());
+            } finally {
+                executor.shutdown();
+            }
+        }
+        if (malformedLines > 0) {
+            System.err.println("Skipped " + malformedLines + " malformed call-graph lines in " + filename);
+        }
+        return builder.build();
+    }
+
+    // chunk start offsets plus the file size; every inner bound sits right after a '\n'
+    private long[] chunkBounds(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long chunkSize = Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, size / (threads * 4L) + 1));
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long position = chunkSize;
+        while (position < size) {
+            long lineEnd = -1;
+            while (lineEnd < 0 && position < size) {
+                probe.clear();
+                int read = channel.read(probe, position);
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        lineEnd = position + i + 1;
+                        break;
+                    }
+                }
+                if (lineEnd < 0) {
+                    position += Math.max(read, 1);
+                }
+            }
+            if (lineEnd < 0 || lineEnd >= size) {
+                break;
+            }
+            bounds.add(lineEnd);
+            position = lineEnd + chunkSize;
+        }
+        bounds.add(size);
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    private class Chunk {
+        private final MappedByteBuffer buffer;
+        // symbols are (offset, length) slices of the mapped chunk, interned by content
+        private int[] symbolOffsets = new int[1024];
+        private int[] symbolLengths = new int[1024];
+        private int[] symbolHashes = new int[1024];
+        private int symbolCount;
+        private int[] symbolSlots = newSlots(2048);
+        private final MethodTable methods = new MethodTable(new SymbolTable(), 1024);
+        private int[] edges = new int[2048];
+        private int edgeCount;
+        private long lineCount;
+        private long malformedCount;
+        private long skippedCount;
+        private final List<String> malformedSamples = new ArrayList<>();
+        private final List<Long> malformedSampleLines = new ArrayList<>();
+
+        Chunk(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        Chunk parse() {
+            int limit = buffer.limit();
+            int lineStart = 0;
+            while (lineStart < limit) {
+                int lineEnd = lineStart;
+                while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+                int next = lineEnd + 1;
+                if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') {
+                    lineEnd--;
+                }
+                parseLine(lineStart, lineEnd);
+                lineCount++;
+                lineStart = next;
+            }
+            return this;
+        }
+
+        // mirrors line.split(" ") followed by Method.parseMethod on the "M:" and "(X)" stripped tokens
+        private void parseLine(int start, int end) {
+            if (end == start) {
+                skippedCount++;
+                return;
+            }
+            if (end - start < 2 || buffer.get(start) != 'M' || buffer.get(start + 1) != ':') {
+                skippedCount++;
+                return;
+            }
+            int space = indexOf((byte) ' ', start, end);
+            if (space < 0) {
+                malformed(start, end);
+                return;
+            }
+            int calleeEnd = indexOf((byte) ' ', space + 1, end);
+            if (calleeEnd < 0) {
+                calleeEnd = end;
+            }
+            int src = parseMethod(start + 2, space);
+            int dest = calleeEnd - (space + 1) < 3 ? -1 : parseMethod(space + 4, calleeEnd);
+            if (src < 0 || dest < 0) {
+                malformed(start, end);
+                return;
+            }
+            if (edgeCount + 2 > edges.length) {
+                edges = Arrays.copyOf(edges, edges.length * 2);
+            }
+            edges[edgeCount++] = src;
+            edges[edgeCount++] = dest;
+        }
+
+        // same rules as Method.parseMethod: "pkg.Class:name(params)", "pkg.Class:name", or the original "pkg.Class.:name"
+        private int parseMethod(int start, int end) {
+            int openParen = indexOf((byte) '(', start, end);
+            int lastColon = lastIndexOf((byte) ':', start, openParen < 0 ? end : openParen);
+            if (openParen >= 0 || (lastColon > start && buffer.get(lastColon - 1) != '.')) {
+                if (lastColon < 0) {
+                    return -1;
+                }
+                int classDot = lastIndexOf((byte) '.', start, lastColon);
+                int packageId = classDot < 0 ? symbol(start, start) : symbol(start, classDot);
+                int classId = symbol(classDot < 0 ? start : classDot + 1, lastColon);
+                if (openParen < 0) {
+                    return methods.intern(packageId, classId, symbol(lastColon + 1, end));
+                }
+                int closeParen = lastIndexOf((byte) ')', openParen, end);
+                if (closeParen < 0) {
+                    return -1;
+                }
+                return methods.intern(packageId, classId, symbol(lastColon + 1, openParen), symbol(openParen + 1, closeParen));
+            }
+
+            int lastDot = lastIndexOf((byte) '.', start, end);
+            if (lastDot < 0) {
+                return -1;
+            }
+            int classDot = lastIndexOf((byte) '.', start, lastDot);
+            if (classDot < 0) {
+                return -1;
+            }
+            int nameStart = lastColon < 0 ? start : lastColon + 1;
+            return methods.intern(symbol(start, classDot), symbol(classDot + 1, lastDot), symbol(nameStart, end));
+        }
+
+        private int symbol(int start, int end) {
+            int length = end - start;
+            int hash = length;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + buffer.get(i);
+            }
+            int mask = symbolSlots.length - 1;
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (symbolSlots[slot] >= 0) {
+                int id = symbolSlots[slot];
+                if (symbolHashes[id] == hash && symbolLengths[id] == length && sameBytes(symbolOffsets[id], start, length)) {
+                    return id;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (symbolCount == symbolOffsets.length) {
+                symbolOffsets = Arrays.copyOf(symbolOffsets, symbolCount * 2);
+                symbolLengths = Arrays.copyOf(symbolLengths, symbolCount * 2);
+                symbolHashes = Arrays.copyOf(symbolHashes, symbolCount * 2);
+            }
+            int id = symbolCount++;
+            symbolOffsets[id] = start;
+            symbolLengths[id] = length;
+            symbolHashes[id] = hash;
+            symbolSlots[slot] = id;
+            if (symbolCount * 2 > symbolSlots.length) {
+                rehashSymbols();
+            }
+            return id;
+        }
+
+        private void rehashSymbols() {
+            int[] slots = newSlots(symbolSlots.length * 2);
+            int mask = slots.length - 1;
+            for (int id = 0; id < symbolCount; id++) {
+                int hash = symbolHashes[id];
+                int slot = (hash ^ (hash >>> 16)) & mask;
+                while (slots[slot] >= 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = id;
+            }
+            symbolSlots = slots;
+        }
+
+        private boolean sameBytes(int a, int b, int length) {
+            for (int i = 0; i < length; i++) {
+                if (buffer.get(a + i) != buffer.get(b + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int indexOf(byte b, int start, int end) {
+            for (int i = start; i < end; i++) {
+                if (buffer.get(i) == b) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private int lastIndexOf(byte b, int start, int end) {
+            for (int i = end - 1; i >= start; i--) {
+                if (buffer.get(i) == b) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void malformed(int start, int end) {
+            malformedCount++;
+            if (malformedSamples.size() < MAX_REPORTED_LINES) {
+                malformedSamples.add(decode(start, end - start));
+                malformedSampleLines.add(lineCount);
+            }
+        }
+
+        private String decode(int offset, int length) {
+            byte[] bytes = new byte[length];
+            for (int i = 0; i < length; i++) {
+                bytes[i] = buffer.get(offset + i);
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        void mergeInto(CompactGraph.Builder builder, long firstLine) {
+            MethodTable globalMethods = builder.getMethods();
+            SymbolTable globalSymbols = globalMethods.getSymbols();
+            int[] symbolMap = new int[symbolCount];
+            for (int id = 0; id < symbolCount; id++) {
+                symbolMap[id] = globalSymbols.intern(decode(symbolOffsets[id], symbolLengths[id]));
+            }
+            int[] methodMap = new int[methods.size()];
+            for (int id = 0; id < methodMap.length; id++) {
+                int parameterId = methods.getParameterId(id);
+                methodMap[id] = globalMethods.intern(symbolMap[methods.getPackageId(id)],
+                        symbolMap[methods.getClassId(id)], symbolMap[methods.getNameId(id)],
+                        parameterId == MethodTable.NO_PARAMETERS ? MethodTable.NO_PARAMETERS : symbolMap[parameterId]);
+            }
+            for (int i = 0; i < edgeCount; i += 2) {
+                builder.addEdge(methodMap[edges[i]], methodMap[edges[i + 1]]);
+            }
+
+            for (int i = 0; i < malformedSamples.size(); i++) {
+                if (malformedLines + i < MAX_REPORTED_LINES) {
+                    System.err.println("Malformed call-graph line " + (firstLine + malformedSampleLines.get(i)) + ": " + malformedSamples.get(i));
+                }
+            }
+            malformedLines += malformedCount;
+            skippedLines += skippedCount;
+        }
+    }
+
+    private static int[] newSlots(int length) {
+        int[] slots = new int[length];
+        Arrays.fill(slots, -1);
+        return slots;
+    }
+}
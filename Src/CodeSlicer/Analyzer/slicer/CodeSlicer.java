@@ -0,0 +1,640 @@
+package Analyzer.slicer;
+
+import Analyzer.util.MethodFinder;
+import Analyzer.util.Metrics;
+import Analyzer.util.SnippetStore;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.apache.commons.cli.*;
+
+
+
+
+public class CodeSlicer {
+    private static final int LAZY_CACHE_SIZE = 512;
+
+    static class Graph {
+        private Map<Method, Set<Method>> adjList;
+
+        Graph() {
+            this.adjList = new HashMap<>();
+        }
+
+
+        void addEdge(Method src, Method dest) {
+            this.adjList.putIfAbsent(src, new HashSet<>());
+            this.adjList.get(src).add(dest);
+        }
+
+        Set<Method> getAdjMethods(Method method) {
+            return this.adjList.getOrDefault(method, Collections.emptySet());
+        }
+
+        // method itself when it has callees; otherwise, for a method without a parameter list, every overload
+        // of that name that has callees
+        List<Method> overloadsOf(Method method) {
+            if (this.adjList.containsKey(method) || method.getParameters() != null) {
+                return Collections.singletonList(method);
+            }
+            List<Method> overloads = new ArrayList<>();
+            for (Method candidate : this.adjList.keySet()) {
+                if (candidate.methodName.equals(method.methodName) && candidate.className.equals(method.className)
+                        && candidate.packageName.equals(method.packageName)) {
+                    overloads.add(candidate);
+                }
+            }
+            return overloads;
+        }
+
+        Set<Map.Entry<Method, Set<Method>>> getEntries() {
+            return this.adjList.entrySet();
+        }
+
+        // a caller left without callees is dropped, as it would be missing after a full reload
+        void removeEdge(Method src, Method dest) {
+            Set<Method> callees = this.adjList.get(src);
+            if (callees != null && callees.remove(dest) && callees.isEmpty()) {
+                this.adjList.remove(src);
+            }
+        }
+
+        // removes the methods with every edge from or to them, in one pass over the graph
+        void removeMethods(Set<Method> methods) {
+            Iterator<Map.Entry<Method, Set<Method>>> entries = this.adjList.entrySet().iterator();
+            while (entries.hasNext()) {
+                Map.Entry<Method, Set<Method>> entry = entries.next();
+                if (methods.contains(entry.getKey())) {
+                    entries.remove();
+                    continue;
+                }
+                entry.getValue().removeAll(methods);
+                if (entry.getValue().isEmpty()) {
+                    entries.remove();
+                }
+            }
+        }
+
+        // removed methods first, then removed edges, then added edges
+        void applyDiff(CallGraphDiff diff) {
+            if (!diff.getRemovedMethods().isEmpty()) {
+                removeMethods(new HashSet<>(diff.getRemovedMethods()));
+            }
+            for (Method[] edge : diff.getRemovedEdges()) {
+                removeEdge(edge[0], edge[1]);
+            }
+            for (Method[] edge : diff.getAddedEdges()) {
+                addEdge(edge[0], edge[1]);
+            }
+        }
+    }
+
+    // A method identified by package, class (binary form, so "Outer$Inner" and anonymous "Outer$1" stay distinct),
+    // name and, when the call graph carries it, the parameter list, so overloads are separate nodes. The 64-bit
+    // key is computed once; hashCode and the first equals check use it without touching the strings.
+    public static class Method {
+        final String packageName;
+        final String className;
+        final String methodName;
+        // parameter types as written in the signature, e.g. "int,java.lang.String"; null when unknown
+        final String parameters;
+        private final long key;
+
+        Method(String packageName, String className, String methodName) {
+            this(packageName, className, methodName, null);
+        }
+
+        Method(String packageName, String className, String methodName, String parameters) {
+            this.packageName = packageName;
+            this.className = className;
+            this.methodName = methodName;
+            this.parameters = parameters;
+            this.key = key(packageName, className, methodName, parameters);
+        }
+        //get package name
+        public String getPackageName() {
+            return packageName;
+        }
+        //get class name
+        public String getClassName() {
+            return className;
+        }
+        //get method name
+        public String getMethodName() {
+            return methodName;
+        }
+        //get parameter list, null when the signature had none
+        public String getParameters() {
+            return parameters;
+        }
+        //get parameter count, -1 when unknown
+        int getArity() {
+            if (parameters == null) {
+                return -1;
+            }
+            if (parameters.isEmpty()) {
+                return 0;
+            }
+            int arity = 1;
+            for (int i = 0; i < parameters.length(); i++) {
+                if (parameters.charAt(i) == ',') {
+                    arity++;
+                }
+            }
+            return arity;
+        }
+
+        long getKey() {
+            return key;
+        }
+
+        // "pkg.Class:name(params)" as written by java-callgraph; without a parameter list falls back to the
+        // original "pkg.Class.:name" parsing
+        public static Method parseMethod(String methodDesc) {
+            int openParen = methodDesc.indexOf('(');
+            int lastColonIndex = methodDesc.lastIndexOf(':', openParen < 0 ? methodDesc.length() : openParen);
+            if (openParen >= 0 || (lastColonIndex > 0 && methodDesc.charAt(lastColonIndex - 1) != '.')) {
+                if (lastColonIndex < 0) {
+                    throw new StringIndexOutOfBoundsException("no ':' in method signature " + methodDesc);
+                }
+                String fullClassName = methodDesc.substring(0, lastColonIndex);
+                int lastDotIndexInFullClassName = fullClassName.lastIndexOf('.');
+                String packageName = lastDotIndexInFullClassName < 0 ? "" : fullClassName.substring(0, lastDotIndexInFullClassName);
+                String className = fullClassName.substring(lastDotIndexInFullClassName + 1);
+                if (openParen < 0) {
+                    return new Method(packageName, className, methodDesc.substring(lastColonIndex + 1));
+                }
+                int closeParen = methodDesc.lastIndexOf(')');
+                if (closeParen < openParen) {
+                    throw new StringIndexOutOfBoundsException("unbalanced parameter list in " + methodDesc);
+                }
+                return new Method(packageName, className, methodDesc.substring(lastColonIndex + 1, openParen),
+                        methodDesc.substring(openParen + 1, closeParen));
+            }
+
+            int lastDotIndex = methodDesc.lastIndexOf(".");
+            String fullClassName = methodDesc.substring(0, lastDotIndex);
+            String methodName = methodDesc.substring(lastColonIndex + 1);
+
+            int lastDotIndexInFullClassName = fullClassName.lastIndexOf(".");
+            String packageName = fullClassName.substring(0, lastDotIndexInFullClassName);
+            String className = fullClassName.substring(lastDotIndexInFullClassName + 1);
+
+            return new Method(packageName, className, methodName);
+        }
+
+        // 64-bit FNV-1a over the four parts with separators; a missing parameter list hashes differently from "()"
+        static long key(String packageName, String className, String methodName, String parameters) {
+            long hash = 0xCBF29CE484222325L;
+            hash = mix(hash, packageName);
+            hash = mix(hash, className);
+            hash = mix(hash, methodName);
+            if (parameters != null) {
+                hash = mix(hash, parameters);
+            }
+            return hash;
+        }
+
+        private static long mix(long hash, String value) {
+            for (int i = 0; i < value.length(); i++) {
+                hash = (hash ^ value.charAt(i)) * 0x100000001B3L;
+            }
+            return (hash ^ 0xFFFF) * 0x100000001B3L;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Method method = (Method) o;
+            return key == method.key && packageName.equals(method.packageName) && className.equals(method.className)
+                    && methodName.equals(method.methodName) && Objects.equals(parameters, method.parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (key ^ (key >>> 32));
+        }
+
+        @Override
+        public String toString() {
+            return "Method{" +
+                    "packageName='" + packageName + '\'' +
+                    ", className='" + className + '\'' +
+                    ", methodName='" + methodName + '\'' +
+                    (parameters == null ? "" : ", parameters='" + parameters + '\'') +
+                    '}';
+        }
+    }
+
+    static Set<Method> getTwoHopsMethods(Graph callGraph, Method targetMethod) {
+        Set<Method> twoHopsMethods = new HashSet<>();
+        Set<Method> oneHopMethods = callGraph.getAdjMethods(targetMethod);
+
+        for (Method oneHopMethod : oneHopMethods) {
+            twoHopsMethods.addAll(callGraph.getAdjMethods(oneHopMethod));
+        }
+
+        return twoHopsMethods;
+    }
+
+    // a target written without a parameter list ("pkg.Class:name") would match no node of a call graph that
+    // carries parameters; it stands for every overload of that name instead, and its slice is theirs combined
+    public static Function<Method, Set<Method>> withOverloads(Function<Method, Set<Method>> slice, Function<Method, List<Method>> overloads) {
+        return method -> {
+            if (method.getParameters() != null) {
+                return slice.apply(method);
+            }
+            List<Method> matches = overloads.apply(method);
+            if (matches.size() == 1) {
+                return slice.apply(matches.get(0));
+            }
+            Set<Method> combined = new LinkedHashSet<>();
+            for (Method overload : matches) {
+                combined.addAll(slice.apply(overload));
+            }
+            return combined;
+        };
+    }
+
+    static Graph createGraphFromOutput(String filename) {
+        Graph callGraph = new Graph();
+
+        long start = Metrics.start();
+        try {
+            BufferedReader br = new BufferedReader(new FileReader(filename));
+            String line;
+            long lineNumber = 0;
+            long edges = 0;
+            while ((line = br.readLine()) != null) {
+                lineNumber++;
+                if (!line.startsWith("M:")) {
+                    continue;
+                }
+                try {
+                    Method[] edge = parseEdge(line);
+                    callGraph.addEdge(edge[0], edge[1]);
+                    edges++;
+                } catch (IndexOutOfBoundsException e) {
+                    Metrics.increment("callgraph.malformedLines");
+                    System.err.println("Malformed call-graph line " + lineNumber + ": " + line);
+                }
+            }
+            br.close();
+            Metrics.add("callgraph.lines", lineNumber);
+            Metrics.add("callgraph.edges", edges);
+        } catch (IOException e) {
+            Metrics.increment("failures.callgraph.load");
+            e.printStackTrace();
+        } finally {
+            Metrics.stop("callgraph.load", start);
+        }
+
+        return callGraph;
+    }
+
+    // caller and callee of an "M:caller (X)callee" line; IndexOutOfBoundsException when it is malformed
+    static Method[] parseEdge(String line) {
+        String[] methodDescs = line.split(" ");
+        return new Method[]{Method.parseMethod(methodDescs[0].substring(2)), Method.parseMethod(methodDescs[1].substring(3))};
+    }
+
+    private static LogReachability findLogRelated(CompactGraph callGraph, String logApi) {
+        LogReachability logReachability;
+        long start = Metrics.start();
+        try {
+            logReachability = new LogReachability(callGraph, LogReachability.matcher(logApi));
+        } finally {
+            Metrics.stop("logReachability", start);
+        }
+        System.err.println(logReachability.size() + " log-related methods, " + logReachability.getLogCallerCount()
+                + " calling the log API directly");
+        return logReachability;
+    }
+
+    private static void applyDiffs(String diffFiles, Consumer<CallGraphDiff> updateGraph) {
+        if (diffFiles == null) {
+            return;
+        }
+        for (String diffFile : diffFiles.split(",")) {
+            try {
+                updateGraph.accept(CallGraphDiff.load(diffFile.trim()));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    public static CompactGraph createCompactGraphFromOutput(String filename, int threads, boolean useSnapshot) {
+        if (useSnapshot) {
+            CompactGraph snapshot;
+            long snapshotStart = Metrics.start();
+            try {
+                snapshot = GraphSnapshot.load(filename);
+            } finally {
+                Metrics.stop("callgraph.snapshot.load", snapshotStart);
+            }
+            if (snapshot != null) {
+                Metrics.increment("callgraph.snapshot.hits");
+                Metrics.add("callgraph.edges", snapshot.edgeCount());
+                return snapshot;
+            }
+            Metrics.increment("callgraph.snapshot.misses");
+        }
+
+        CompactGraph callGraph;
+        long loadStart = Metrics.start();
+        try {
+            CallGraphLoader loader = new CallGraphLoader(threads);
+            callGraph = loader.load(filename);
+            Metrics.add("callgraph.edges", callGraph.edgeCount());
+            Metrics.add("callgraph.malformedLines", loader.getMalformedLines());
+        } catch (IOException e) {
+            Metrics.increment("failures.callgraph.load");
+            e.printStackTrace();
+            return new CompactGraph.Builder().build();
+        } finally {
+            Metrics.stop("callgraph.load", loadStart);
+        }
+
+        if (useSnapshot) {
+            long writeStart = Metrics.start();
+            try {
+                GraphSnapshot.write(callGraph, filename);
+            } catch (IOException e) {
+                Metrics.increment("failures.callgraph.snapshot.write");
+                System.err.println("Could not write call-graph snapshot for " + filename + ": " + e.getMessage());
+            } finally {
+                Metrics.stop("callgraph.snapshot.write", writeStart);
+            }
+        }
+        return callGraph;
+    }
+
+    static int[] parseFanOutCaps(String value) {
+        if (value.trim().isEmpty()) {
+            return new int[0];
+        }
+        String[] parts = value.split(",");
+        int[] caps = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            caps[i] = Integer.parseInt(parts[i].trim());
+        }
+        return caps;
+    }
+
+    public static void main(String[] args) throws ParseException {
+        org.apache.commons.cli.Options options = new Options();
+
+        Option inputOption = new Option("i", "input", true, "input file path");
+        inputOption.setRequired(true);
+        options.addOption(inputOption);
+
+        Option methodOption = new Option("m", "method", true, "target method signature");
+        options.addOption(methodOption);
+
+        Option batchOption = new Option("b", "batch", true, "file of target method signatures, one per line (- for stdin)");
+        options.addOption(batchOption);
+
+        Option dirOption = new Option("d", "directory", true, "project source directory");
+        dirOption.setRequired(true);
+        options.addOption(dirOption);
+
+        Option compactOption = new Option("c", "compact", false, "use the compact interned call-graph store");
+        options.addOption(compactOption);
+
+        Option threadsOption = new Option("t", "threads", true, "worker threads for call-graph loading (compact mode) and batch slicing");
+        options.addOption(threadsOption);
+
+        Option depthOption = new Option("k", "depth", true, "neighborhood depth; replaces the fixed two-hop callee set (compact mode)");
+        options.addOption(depthOption);
+
+        Option directionOption = new Option("r", "direction", true, "neighborhood direction: callees, callers or both (default callees)");
+        options.addOption(directionOption);
+
+        Option fanOutOption = new Option("f", "fanout", true, "comma-separated per-level fan-out caps, the last one repeats");
+        options.addOption(fanOutOption);
+
+        Option lazyOption = new Option("l", "lazy", false, "index source paths only and parse files on demand");
+        options.addOption(lazyOption);
+
+        Option methodIndexOption = new Option("x", "method-index", true, "persistent method index file; only changed sources are re-parsed");
+        options.addOption(methodIndexOption);
+
+        Option noSnapshotOption = new Option("n", "no-snapshot", false, "do not read or write the binary call-graph snapshot (compact mode)");
+        options.addOption(noSnapshotOption);
+
+        Option logMethodsOption = new Option("g", "log-methods", true, "write the log-related methods, one per line, to this file (compact mode)");
+        options.addOption(logMethodsOption);
+
+        Option logEdgesOption = new Option("e", "log-edges", true, "write the calls between log-related methods as a call-graph file (compact mode)");
+        options.addOption(logEdgesOption);
+
+        Option logOnlyOption = new Option("L", "log-only", false, "keep only log-related methods in slices (compact mode)");
+        options.addOption(logOnlyOption);
+
+        Option logApiOption = new Option("a", "log-api", true, "case-insensitive regex matching log API callees (default " + LogReachability.DEFAULT_MATCHER + ")");
+        options.addOption(logApiOption);
+
+        Option serveOption = new Option("s", "serve", true, "keep the graph and index loaded and answer JSON requests on this port or Unix socket path");
+        options.addOption(serveOption);
+
+        Option updateOption = new Option("u", "update", true, "comma-separated call-graph diff files applied in order after loading");
+        options.addOption(updateOption);
+
+        Option snippetsOption = new Option("z", "snippets", true, "store method sources once in this snippet store and write their ids (batch and serve)");
+        options.addOption(snippetsOption);
+
+        BasicParser basicParser = new BasicParser();
+        CommandLine commandLine = basicParser.parse(options, args);
+
+        try {
+            commandLine = basicParser.parse(options, args);
+        } catch (ParseException e) {
+            System.out.println(e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        if (!commandLine.hasOption("method") && !commandLine.hasOption("batch") && !commandLine.hasOption("log-methods")
+                && !commandLine.hasOption("log-edges") && !commandLine.hasOption("serve")) {
+            System.out.println("Missing required option: m, b, g, e or s");
+            System.exit(1);
+            return;
+        }
+
+        String filename = commandLine.getOptionValue("input");
+        String projectSrcDir = commandLine.getOptionValue("directory");
+        int threads = Integer.parseInt(commandLine.getOptionValue("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+
+        boolean logAnalysis = commandLine.hasOption("log-methods") || commandLine.hasOption("log-edges")
+                || commandLine.hasOption("log-only");
+        Function<Method, Set<Method>> slice;
+        // applies a diff to the resident graph; the server calls it while no slice runs
+        Consumer<CallGraphDiff> updateGraph;
+        // null when the resident graph is a CodeSlicer.Graph
+        Supplier<CompactGraph> compactGraph = null;
+        AtomicReference<LogReachability> logReachability = new AtomicReference<>();
+        if (commandLine.hasOption("compact") || commandLine.hasOption("depth") || logAnalysis) {
+            AtomicReference<CompactGraph> callGraph = new AtomicReference<>(
+                    createCompactGraphFromOutput(filename, threads, !commandLine.hasOption("no-snapshot")));
+            compactGraph = callGraph::get;
+            String logApi = commandLine.getOptionValue("log-api", LogReachability.DEFAULT_MATCHER);
+            updateGraph = diff -> {
+                long start = Metrics.start();
+                try {
+                    callGraph.set(callGraph.get().applyDiff(diff));
+                } finally {
+                    Metrics.stop("callgraph.diff.apply", start);
+                }
+                if (logReachability.get() != null) {
+                    logReachability.set(findLogRelated(callGraph.get(), logApi));
+                }
+            };
+            applyDiffs(commandLine.getOptionValue("update"), updateGraph);
+            if (logAnalysis) {
+                logReachability.set(findLogRelated(callGraph.get(), logApi));
+            }
+            if (commandLine.hasOption("depth")) {
+                int depth = Integer.parseInt(commandLine.getOptionValue("depth"));
+                NeighborhoodQuery.Direction direction = NeighborhoodQuery.Direction.valueOf(
+                        commandLine.getOptionValue("direction", "callees").toUpperCase());
+                int[] fanOutCaps = parseFanOutCaps(commandLine.getOptionValue("fanout", ""));
+                // each query holds mark arrays as long as the graph has methods, so slicing threads and server
+                // connections share a pool of at most `threads` of them; a query made while the pool is empty is
+                // dropped if it is full again, and queries of a replaced graph are dropped when taken out
+                BlockingQueue<NeighborhoodQuery> queries = new ArrayBlockingQueue<>(Math.max(1, threads));
+                slice = method -> {
+                    CompactGraph graph = callGraph.get();
+                    NeighborhoodQuery query = queries.poll();
+                    if (query == null || query.getGraph() != graph) {
+                        query = new NeighborhoodQuery(graph).direction(direction).maxDepth(depth).fanOutCaps(fanOutCaps);
+                    }
+                    try {
+                        return query.query(method);
+                    } finally {
+                        queries.offer(query);
+                    }
+                };
+            } else {
+                slice = method -> callGraph.get().getTwoHopsMethods(method);
+            }
+            slice = withOverloads(slice, method -> callGraph.get().overloadsOf(method));
+        } else {
+            Graph callGraph = createGraphFromOutput(filename);
+            updateGraph = diff -> {
+                long start = Metrics.start();
+                try {
+                    callGraph.applyDiff(diff);
+                } finally {
+                    Metrics.stop("callgraph.diff.apply", start);
+                }
+            };
+            applyDiffs(commandLine.getOptionValue("update"), updateGraph);
+            slice = withOverloads(method -> getTwoHopsMethods(callGraph, method), callGraph::overloadsOf);
+        }
+
+        if (commandLine.hasOption("log-methods")) {
+            try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(commandLine.getOptionValue("log-methods"))))) {
+                for (Method method : logReachability.get().getRelatedMethods()) {
+                    out.println(LogReachability.describe(method));
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        if (commandLine.hasOption("log-edges")) {
+            try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(commandLine.getOptionValue("log-edges"))))) {
+                logReachability.get().writeSubgraph(out);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        if (logAnalysis && !commandLine.hasOption("method") && !commandLine.hasOption("batch") && !commandLine.hasOption("serve")) {
+            return;
+        }
+        if (commandLine.hasOption("log-only")) {
+            Function<Method, Set<Method>> unfiltered = slice;
+            slice = method -> logReachability.get().filter(unfiltered.apply(method));
+        }
+
+        MethodFinder analyzer = new MethodFinder(projectSrcDir, commandLine.hasOption("lazy"), LAZY_CACHE_SIZE);
+        if (commandLine.hasOption("method-index")) {
+            analyzer.setIndexFile(new File(commandLine.getOptionValue("method-index")));
+        }
+        if (commandLine.hasOption("serve") || commandLine.hasOption("batch")) {
+            analyzer.analyze();
+            BatchSlicer slicer = new BatchSlicer(slice, analyzer, threads);
+            SnippetStore snippets = null;
+            try {
+                if (commandLine.hasOption("snippets")) {
+                    snippets = new SnippetStore(new File(commandLine.getOptionValue("snippets")), false);
+                    slicer.setSnippetStore(snippets);
+                }
+                if (commandLine.hasOption("serve")) {
+                    File diffDirectory = new File(filename).getAbsoluteFile().getParentFile();
+                    new SliceServer(slicer, analyzer, updateGraph, compactGraph, diffDirectory, snippets, threads)
+                            .serve(commandLine.getOptionValue("serve"));
+                } else {
+                    String batchFile = commandLine.getOptionValue("batch");
+                    try (BufferedReader targets = "-".equals(batchFile)
+                            ? new BufferedReader(new InputStreamReader(System.in))
+                            : new BufferedReader(new FileReader(batchFile))) {
+                        slicer.run(targets, System.out);
+                    }
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            } finally {
+                if (snippets != null) {
+                    System.err.println(snippets);
+                    try {
+                        snippets.close();
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+            return;
+        }
+
+        Method targetMethod = Method.parseMethod(commandLine.getOptionValue("method"));
+        Set<Method> twoHopsMethods;
+        long start = Metrics.start();
+        try {
+            twoHopsMethods = slice.apply(targetMethod);
+        } finally {
+            Metrics.stop("slice", start);
+        }
+
+        if (commandLine.hasOption("depth")) {
+            System.out.println("Methods within " + commandLine.getOptionValue("depth") + " hops of " + targetMethod + ": " + twoHopsMethods);
+        } else {
+            System.out.println("Two hops methods from " + targetMethod + ": " + twoHopsMethods);
+        }
+
+        analyzer.analyze();
+        for (Method method : twoHopsMethods) {
+            String packageName = method.getPackageName();
+            String className = method.getClassName();
+            String methodName = method.getMethodName();
+            analyzer.printMethodSource(packageName, className, methodName, method.getParameters());
+        }
+    }
+
+
+}
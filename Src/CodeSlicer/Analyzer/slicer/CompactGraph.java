@@ -0,0 +1,361 @@
+package Analyzer.slicer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Immutable call graph keeping adjacency in CSR form: the callees of method id are
+// targets[offsets[id]] .. targets[offsets[id + 1] - 1], sorted and without duplicates.
+public class CompactGraph {
+    private final MethodTable methods;
+    private final int[] offsets;
+    private final int[] targets;
+    private volatile int[][] reverse;
+    private volatile ReachabilityIndex reachability;
+
+    CompactGraph(MethodTable methods, int[] offsets, int[] targets) {
+        this.methods = methods;
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    MethodTable getMethods() {
+        return methods;
+    }
+
+    int[] getOffsets() {
+        return offsets;
+    }
+
+    int[] getTargets() {
+        return targets;
+    }
+
+    int methodCount() {
+        return offsets.length - 1;
+    }
+
+    int edgeCount() {
+        return offsets[offsets.length - 1];
+    }
+
+    int idOf(CodeSlicer.Method method) {
+        return methods.lookup(method);
+    }
+
+    // method itself when the graph has it; otherwise, for a method without a parameter list, every overload of
+    // that name in the graph
+    public List<CodeSlicer.Method> overloadsOf(CodeSlicer.Method method) {
+        if (idOf(method) >= 0 || method.getParameters() != null) {
+            return Collections.singletonList(method);
+        }
+        return new ArrayList<>(toMethods(methods.lookupOverloads(method)));
+    }
+
+    CodeSlicer.Method methodOf(int id) {
+        return methods.get(id);
+    }
+
+    int outDegree(int id) {
+        return offsets[id + 1] - offsets[id];
+    }
+
+    int inDegree(int id) {
+        int[] reverseOffsets = getReverseOffsets();
+        return reverseOffsets[id + 1] - reverseOffsets[id];
+    }
+
+    // reverse CSR: the callers of id are getReverseTargets()[getReverseOffsets()[id] .. getReverseOffsets()[id + 1] - 1]
+    int[] getReverseOffsets() {
+        return reverseIndex()[0];
+    }
+
+    int[] getReverseTargets() {
+        return reverseIndex()[1];
+    }
+
+    int[] getCallers(int id) {
+        if (id < 0 || id >= methodCount()) {
+            return new int[0];
+        }
+        int[][] index = reverseIndex();
+        return Arrays.copyOfRange(index[1], index[0][id], index[0][id + 1]);
+    }
+
+    // built on first use and shared afterwards; CodeSlicer.Graph callers go through fromGraph first. searchers
+    // bounds the pooled search state of the index and only counts on the call that builds it
+    ReachabilityIndex getReachabilityIndex(int searchers) {
+        ReachabilityIndex index = reachability;
+        if (index == null) {
+            synchronized (this) {
+                index = reachability;
+                if (index == null) {
+                    index = new ReachabilityIndex(this, searchers);
+                    reachability = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    private int[][] reverseIndex() {
+        int[][] index = reverse;
+        if (index == null) {
+            synchronized (this) {
+                index = reverse;
+                if (index == null) {
+                    index = buildReverseIndex();
+                    reverse = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    // filling rows in ascending source order keeps every reverse row sorted
+    private int[][] buildReverseIndex() {
+        int methodCount = methodCount();
+        int[] reverseOffsets = new int[methodCount + 1];
+        for (int i = 0; i < edgeCount(); i++) {
+            reverseOffsets[targets[i] + 1]++;
+        }
+        for (int id = 0; id < methodCount; id++) {
+            reverseOffsets[id + 1] += reverseOffsets[id];
+        }
+        int[] next = Arrays.copyOf(reverseOffsets, methodCount);
+        int[] reverseTargets = new int[edgeCount()];
+        for (int src = 0; src < methodCount; src++) {
+            for (int i = offsets[src]; i < offsets[src + 1]; i++) {
+                reverseTargets[next[targets[i]]++] = src;
+            }
+        }
+        return new int[][]{reverseOffsets, reverseTargets};
+    }
+
+    int[] getAdjMethods(int id) {
+        if (id < 0 || id >= methodCount()) {
+            return new int[0];
+        }
+        return Arrays.copyOfRange(targets, offsets[id], offsets[id + 1]);
+    }
+
+    Set<CodeSlicer.Method> getAdjMethods(CodeSlicer.Method method) {
+        int id = idOf(method);
+        if (id < 0) {
+            return Collections.emptySet();
+        }
+        return toMethods(getAdjMethods(id));
+    }
+
+    //callees of the callees of id, in ascending id order
+    int[] getTwoHopsMethods(int id) {
+        if (id < 0 || id >= methodCount()) {
+            return new int[0];
+        }
+        int count = 0;
+        for (int i = offsets[id]; i < offsets[id + 1]; i++) {
+            count += outDegree(targets[i]);
+        }
+        int[] twoHops = new int[count];
+        int n = 0;
+        for (int i = offsets[id]; i < offsets[id + 1]; i++) {
+            int oneHop = targets[i];
+            System.arraycopy(targets, offsets[oneHop], twoHops, n, outDegree(oneHop));
+            n += outDegree(oneHop);
+        }
+        return sortedUnique(twoHops, n);
+    }
+
+    public Set<CodeSlicer.Method> getTwoHopsMethods(CodeSlicer.Method method) {
+        return toMethods(getTwoHopsMethods(idOf(method)));
+    }
+
+    Set<CodeSlicer.Method> toMethods(int[] ids) {
+        Set<CodeSlicer.Method> result = new LinkedHashSet<>();
+        for (int id : ids) {
+            result.add(methodOf(id));
+        }
+        return result;
+    }
+
+    static CompactGraph fromGraph(CodeSlicer.Graph graph) {
+        Builder builder = new Builder();
+        for (Map.Entry<CodeSlicer.Method, Set<CodeSlicer.Method>> entry : graph.getEntries()) {
+            for (CodeSlicer.Method dest : entry.getValue()) {
+                builder.addEdge(entry.getKey(), dest);
+            }
+        }
+        return builder.build();
+    }
+
+    // A new graph with the diff applied: removed methods first, then removed edges, then added edges. Methods
+    // left without any edge are dropped and the remaining ones renumbered, so the result holds the same methods
+    // and edges as a full reload of the changed call graph, though possibly under other ids. This graph is left
+    // as it is; the reverse and reachability indexes of the new one are built from its own rows on first use.
+    CompactGraph applyDiff(CallGraphDiff diff) {
+        int methodCount = methodCount();
+        boolean[] removedMethods = new boolean[methodCount];
+        for (CodeSlicer.Method method : diff.getRemovedMethods()) {
+            int id = idOf(method);
+            if (id >= 0) {
+                removedMethods[id] = true;
+            }
+        }
+        long[] removedEdges = new long[diff.getRemovedEdges().size()];
+        int removedEdgeCount = 0;
+        for (CodeSlicer.Method[] edge : diff.getRemovedEdges()) {
+            int src = idOf(edge[0]);
+            int dest = idOf(edge[1]);
+            if (src >= 0 && dest >= 0) {
+                removedEdges[removedEdgeCount++] = edgeKey(src, dest);
+            }
+        }
+        Arrays.sort(removedEdges, 0, removedEdgeCount);
+
+        Builder builder = new Builder(methods.copy(), edgeCount() + diff.getAddedEdges().size());
+        for (int src = 0; src < methodCount; src++) {
+            if (removedMethods[src]) {
+                continue;
+            }
+            for (int i = offsets[src]; i < offsets[src + 1]; i++) {
+                int dest = targets[i];
+                if (!removedMethods[dest]
+                        && (removedEdgeCount == 0 || Arrays.binarySearch(removedEdges, 0, removedEdgeCount, edgeKey(src, dest)) < 0)) {
+                    builder.addEdge(src, dest);
+                }
+            }
+        }
+        for (CodeSlicer.Method[] edge : diff.getAddedEdges()) {
+            builder.addEdge(edge[0], edge[1]);
+        }
+        return builder.build().withoutIsolatedMethods();
+    }
+
+    private static long edgeKey(int src, int dest) {
+        return (long) src << 32 | dest;
+    }
+
+    // this graph when every method has an edge, otherwise a copy without the isolated ones
+    private CompactGraph withoutIsolatedMethods() {
+        int methodCount = methodCount();
+        boolean[] connected = new boolean[methodCount];
+        for (int id = 0; id < methodCount; id++) {
+            if (outDegree(id) > 0) {
+                connected[id] = true;
+            }
+        }
+        for (int i = 0; i < edgeCount(); i++) {
+            connected[targets[i]] = true;
+        }
+        int[] renumbered = new int[methodCount];
+        int kept = 0;
+        for (int id = 0; id < methodCount; id++) {
+            renumbered[id] = connected[id] ? kept++ : -1;
+        }
+        if (kept == methodCount) {
+            return this;
+        }
+
+        MethodTable keptMethods = new MethodTable(methods.getSymbols(), kept);
+        int[] keptOffsets = new int[kept + 1];
+        for (int id = 0; id < methodCount; id++) {
+            if (connected[id]) {
+                keptMethods.intern(methods.get(id));
+                keptOffsets[renumbered[id] + 1] = offsets[id + 1];
+            }
+        }
+        int[] keptTargets = new int[edgeCount()];
+        for (int i = 0; i < keptTargets.length; i++) {
+            keptTargets[i] = renumbered[targets[i]];
+        }
+        return new CompactGraph(keptMethods, keptOffsets, keptTargets);
+    }
+
+    private static int[] sortedUnique(int[] values, int length) {
+        if (length == 0) {
+            return new int[0];
+        }
+        Arrays.sort(values, 0, length);
+        int unique = 1;
+        for (int i = 1; i < length; i++) {
+            if (values[i] != values[unique - 1]) {
+                values[unique++] = values[i];
+            }
+        }
+        return unique == values.length ? values : Arrays.copyOf(values, unique);
+    }
+
+    static class Builder {
+        private final MethodTable methods;
+        private int[] sources;
+        private int[] destinations;
+        private int edgeCount;
+
+        Builder() {
+            this(new MethodTable(), 1024);
+        }
+
+        Builder(MethodTable methods, int expectedEdges) {
+            this.methods = methods;
+            this.sources = new int[Math.max(16, expectedEdges)];
+            this.destinations = new int[Math.max(16, expectedEdges)];
+        }
+
+        MethodTable getMethods() {
+            return methods;
+        }
+
+        void addEdge(CodeSlicer.Method src, CodeSlicer.Method dest) {
+            addEdge(methods.intern(src), methods.intern(dest));
+        }
+
+        void addEdge(int src, int dest) {
+            if (edgeCount == sources.length) {
+                int capacity = edgeCount + (edgeCount >> 1);
+                sources = Arrays.copyOf(sources, capacity);
+                destinations = Arrays.copyOf(destinations, capacity);
+            }
+            sources[edgeCount] = src;
+            destinations[edgeCount] = dest;
+            edgeCount++;
+        }
+
+        CompactGraph build() {
+            int methodCount = methods.size();
+            int[] offsets = new int[methodCount + 1];
+            for (int i = 0; i < edgeCount; i++) {
+                offsets[sources[i] + 1]++;
+            }
+            for (int id = 0; id < methodCount; id++) {
+                offsets[id + 1] += offsets[id];
+            }
+            int[] next = Arrays.copyOf(offsets, methodCount);
+            int[] targets = new int[edgeCount];
+            for (int i = 0; i < edgeCount; i++) {
+                targets[next[sources[i]]++] = destinations[i];
+            }
+            sources = null;
+            destinations = null;
+
+            // sort every row and drop duplicate edges, compacting the rows towards the front
+            int write = 0;
+            for (int id = 0; id < methodCount; id++) {
+                int start = offsets[id];
+                int end = offsets[id + 1];
+                offsets[id] = write;
+                Arrays.sort(targets, start, end);
+                for (int i = start; i < end; i++) {
+                    if (write == offsets[id] || targets[i] != targets[write - 1]) {
+                        targets[write++] = targets[i];
+                    }
+                }
+            }
+            offsets[methodCount] = write;
+            return new CompactGraph(methods, offsets, write == targets.length ? targets : Arrays.copyOf(targets, write));
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package Analyzer.slicer;
+
+import Analyzer.util.Metrics;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// Versioned binary snapshot of a CompactGraph (symbol table, method table and CSR adjacency), written next to
+// the text call graph it was built from. The header records the size, mtime and content hash of that file;
+// a snapshot whose size differs, or whose mtime differs and whose hash no longer matches, is stale.
+class GraphSnapshot {
+    private static final int MAGIC = 0x53434753; // "SCGS"
+    private static final int VERSION = 2;
+    private static final String SUFFIX = ".snapshot";
+    private static final int HASH_WINDOW = 64 << 20;
+
+    static Path snapshotPathFor(String filename) {
+        return Paths.get(filename + SUFFIX);
+    }
+
+    // returns null when there is no usable snapshot for the given call-graph file
+    static CompactGraph load(String filename) {
+        Path source = Paths.get(filename);
+        Path snapshot = snapshotPathFor(filename);
+        if (!Files.isRegularFile(snapshot)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 48 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            long size = buffer.getLong();
+            long modified = buffer.getLong();
+            long hash = buffer.getLong();
+            if (size != Files.size(source)) {
+                return null;
+            }
+            long sourceModified = Files.getLastModifiedTime(source).toMillis();
+            if (modified != sourceModified) {
+                if (hash != hashFile(source)) {
+                    return null;
+                }
+                // touched but unchanged: remember the new mtime so the next run skips hashing
+                refreshModified(snapshot, sourceModified);
+            }
+
+            int symbolCount = buffer.getInt();
+            int methodCount = buffer.getInt();
+            int edgeCount = buffer.getInt();
+            int symbolBytes = buffer.getInt();
+
+            int[] symbolEnds = readInts(buffer, symbolCount);
+            byte[] bytes = new byte[symbolBytes];
+            buffer.get(bytes);
+            String[] symbols = new String[symbolCount];
+            int start = 0;
+            for (int id = 0; id < symbolCount; id++) {
+                symbols[id] = new String(bytes, start, symbolEnds[id] - start, StandardCharsets.UTF_8);
+                start = symbolEnds[id];
+            }
+
+            int[] packageIds = readInts(buffer, methodCount);
+            int[] classIds = readInts(buffer, methodCount);
+            int[] nameIds = readInts(buffer, methodCount);
+            int[] parameterIds = readInts(buffer, methodCount);
+            int[] offsets = readInts(buffer, methodCount + 1);
+            int[] targets = readInts(buffer, edgeCount);
+
+            MethodTable methods = new MethodTable(new SymbolTable(symbols), packageIds, classIds, nameIds, parameterIds);
+            return new CompactGraph(methods, offsets, targets);
+        } catch (IOException | RuntimeException e) {
+            Metrics.increment("failures.callgraph.snapshot.read");
+            System.err.println("Ignoring unreadable call-graph snapshot " + snapshot + ": " + e);
+            return null;
+        }
+    }
+
+    static void write(CompactGraph graph, String filename) throws IOException {
+        Path source = Paths.get(filename);
+        Path snapshot = snapshotPathFor(filename);
+        Path temp = Paths.get(snapshot + ".tmp");
+
+        MethodTable methods = graph.getMethods();
+        SymbolTable symbols = methods.getSymbols();
+        int symbolCount = symbols.size();
+        int methodCount = graph.methodCount();
+
+        byte[][] encoded = new byte[symbolCount][];
+        int symbolBytes = 0;
+        for (int id = 0; id < symbolCount; id++) {
+            encoded[id] = symbols.get(id).getBytes(StandardCharsets.UTF_8);
+            symbolBytes += encoded[id].length;
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(Files.size(source));
+            out.writeLong(Files.getLastModifiedTime(source).toMillis());
+            out.writeLong(hashFile(source));
+            out.writeInt(symbolCount);
+            out.writeInt(methodCount);
+            out.writeInt(graph.edgeCount());
+            out.writeInt(symbolBytes);
+
+            int end = 0;
+            for (int id = 0; id < symbolCount; id++) {
+                end += encoded[id].length;
+                out.writeInt(end);
+            }
+            for (byte[] symbol : encoded) {
+                out.write(symbol);
+            }
+            for (int id = 0; id < methodCount; id++) {
+                out.writeInt(methods.getPackageId(id));
+            }
+            for (int id = 0; id < methodCount; id++) {
+                out.writeInt(methods.getClassId(id));
+            }
+            for (int id = 0; id < methodCount; id++) {
+                out.writeInt(methods.getNameId(id));
+            }
+            for (int id = 0; id < methodCount; id++) {
+                out.writeInt(methods.getParameterId(id));
+            }
+            int[] offsets = graph.getOffsets();
+            for (int i = 0; i <= methodCount; i++) {
+                out.writeInt(offsets[i]);
+            }
+            int[] targets = graph.getTargets();
+            for (int i = 0; i < graph.edgeCount(); i++) {
+                out.writeInt(targets[i]);
+            }
+        }
+        Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void refreshModified(Path snapshot, long modified) {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(8);
+            buffer.putLong(modified).flip();
+            channel.write(buffer, 16);
+        } catch (IOException e) {
+            // read-only location, the snapshot stays valid through the hash check
+        }
+    }
+
+    // 64-bit content hash of the call-graph file, read through memory-mapped windows
+    static long hashFile(Path file) throws IOException {
+        long hash = 0xCBF29CE484222325L;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += HASH_WINDOW) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(HASH_WINDOW, size - position));
+                while (buffer.remaining() >= 8) {
+                    hash = (hash ^ buffer.getLong()) * 0x100000001B3L;
+                    hash ^= hash >>> 29;
+                }
+                while (buffer.hasRemaining()) {
+                    hash = (hash ^ buffer.get()) * 0x100000001B3L;
+                }
+            }
+            hash ^= size;
+        }
+        return hash;
+    }
+
+    private static int[] readInts(ByteBuffer buffer, int count) {
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + count * 4);
+        return values;
+    }
+}
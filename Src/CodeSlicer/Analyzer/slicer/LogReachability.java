@@ -0,0 +1,152 @@
+package Analyzer.slicer;
+
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+// Methods of a CompactGraph from which some logging call is reachable. A method is log-calling when one of its
+// callees matches the log API matcher; the log-related methods are every method with a call path to a
+// log-calling method, the log-calling methods included. One reverse breadth-first search from all
+// log-calling methods at once finds them in time linear in the number of edges.
+class LogReachability {
+    static final String DEFAULT_MATCHER = "logg";
+
+    private final CompactGraph graph;
+    private final boolean[] related;
+    private final int[] relatedIds;
+    private final int logCallerCount;
+
+    LogReachability(CompactGraph graph, Predicate<CodeSlicer.Method> logApi) {
+        this.graph = graph;
+        int methodCount = graph.methodCount();
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+
+        // match every method once instead of once per call site
+        boolean[] isLogApi = new boolean[methodCount];
+        for (int id = 0; id < methodCount; id++) {
+            isLogApi[id] = logApi.test(graph.methodOf(id));
+        }
+
+        related = new boolean[methodCount];
+        int[] queue = new int[methodCount];
+        int tail = 0;
+        for (int id = 0; id < methodCount; id++) {
+            for (int e = offsets[id]; e < offsets[id + 1]; e++) {
+                if (isLogApi[targets[e]]) {
+                    related[id] = true;
+                    queue[tail++] = id;
+                    break;
+                }
+            }
+        }
+        logCallerCount = tail;
+
+        int[] reverseOffsets = graph.getReverseOffsets();
+        int[] reverseTargets = graph.getReverseTargets();
+        for (int head = 0; head < tail; head++) {
+            int node = queue[head];
+            for (int e = reverseOffsets[node]; e < reverseOffsets[node + 1]; e++) {
+                int caller = reverseTargets[e];
+                if (!related[caller]) {
+                    related[caller] = true;
+                    queue[tail++] = caller;
+                }
+            }
+        }
+        relatedIds = Arrays.copyOf(queue, tail);
+        Arrays.sort(relatedIds);
+    }
+
+    // case-insensitive regular expression searched in "package.Class:method(parameters)"; a plain substring such as
+    // "logg" works as is
+    static Predicate<CodeSlicer.Method> matcher(String regex) {
+        Pattern pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
+        return method -> pattern.matcher(describe(method)).find();
+    }
+
+    // the java-callgraph form, which Method.parseMethod reads back
+    static String describe(CodeSlicer.Method method) {
+        String name = method.getPackageName() + "." + method.getClassName() + ":" + method.getMethodName();
+        return method.getParameters() == null ? name : name + "(" + method.getParameters() + ")";
+    }
+
+    int size() {
+        return relatedIds.length;
+    }
+
+    int getLogCallerCount() {
+        return logCallerCount;
+    }
+
+    boolean isRelated(int id) {
+        return id >= 0 && id < related.length && related[id];
+    }
+
+    boolean isRelated(CodeSlicer.Method method) {
+        return isRelated(graph.idOf(method));
+    }
+
+    // ascending method ids of the log-related methods
+    int[] getRelatedIds() {
+        return relatedIds.clone();
+    }
+
+    Set<CodeSlicer.Method> getRelatedMethods() {
+        return graph.toMethods(relatedIds);
+    }
+
+    // keeps the iteration order of methods
+    Set<CodeSlicer.Method> filter(Set<CodeSlicer.Method> methods) {
+        Set<CodeSlicer.Method> filtered = new LinkedHashSet<>();
+        for (CodeSlicer.Method method : methods) {
+            if (isRelated(method)) {
+                filtered.add(method);
+            }
+        }
+        return filtered;
+    }
+
+    // the subgraph induced by the log-related methods, with the methods numbered in ascending original id order
+    CompactGraph subgraph() {
+        int edgeCount = 0;
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        for (int id : relatedIds) {
+            for (int e = offsets[id]; e < offsets[id + 1]; e++) {
+                if (related[targets[e]]) {
+                    edgeCount++;
+                }
+            }
+        }
+        CompactGraph.Builder builder = new CompactGraph.Builder(new MethodTable(new SymbolTable(), relatedIds.length), edgeCount);
+        int[] newIds = new int[related.length];
+        for (int id : relatedIds) {
+            newIds[id] = builder.getMethods().intern(graph.methodOf(id));
+        }
+        for (int id : relatedIds) {
+            for (int e = offsets[id]; e < offsets[id + 1]; e++) {
+                if (related[targets[e]]) {
+                    builder.addEdge(newIds[id], newIds[targets[e]]);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    // the subgraph as "M:caller (M)callee" lines, which load back as a call graph
+    void writeSubgraph(PrintWriter out) {
+        CompactGraph subgraph = subgraph();
+        int[] offsets = subgraph.getOffsets();
+        int[] targets = subgraph.getTargets();
+        for (int id = 0; id < subgraph.methodCount(); id++) {
+            String caller = "M:" + describe(subgraph.methodOf(id)) + " (M)";
+            for (int e = offsets[id]; e < offsets[id + 1]; e++) {
+                out.println(caller + describe(subgraph.methodOf(targets[e])));
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package Analyzer.slicer;
+
+import java.util.Arrays;
+
+// Assigns a dense int id to every (package, class, method, parameters) signature, backed by primitive arrays
+// and an open-addressing index so lookups do not allocate. A method without a parameter list has parameter
+// id NO_PARAMETERS.
+class MethodTable {
+    private static final int EMPTY = -1;
+    static final int NO_PARAMETERS = -1;
+
+    private final SymbolTable symbols;
+    private int[] packageIds;
+    private int[] classIds;
+    private int[] nameIds;
+    private int[] parameterIds;
+    private int size;
+    private int[] slots;
+
+    MethodTable() {
+        this(new SymbolTable(), 1024);
+    }
+
+    MethodTable(SymbolTable symbols, int expectedMethods) {
+        this.symbols = symbols;
+        int capacity = Math.max(16, expectedMethods);
+        this.packageIds = new int[capacity];
+        this.classIds = new int[capacity];
+        this.nameIds = new int[capacity];
+        this.parameterIds = new int[capacity];
+        this.slots = new int[tableSizeFor(capacity * 2)];
+        Arrays.fill(this.slots, EMPTY);
+    }
+
+    MethodTable(SymbolTable symbols, int[] packageIds, int[] classIds, int[] nameIds, int[] parameterIds) {
+        this.symbols = symbols;
+        this.packageIds = packageIds;
+        this.classIds = classIds;
+        this.nameIds = nameIds;
+        this.parameterIds = parameterIds;
+        this.size = packageIds.length;
+        rehash(tableSizeFor(Math.max(16, size) * 2));
+    }
+
+    // an independent table with the same ids, for derived graphs that intern more methods
+    MethodTable copy() {
+        String[] names = new String[symbols.size()];
+        for (int id = 0; id < names.length; id++) {
+            names[id] = symbols.get(id);
+        }
+        return new MethodTable(new SymbolTable(names), Arrays.copyOf(packageIds, size), Arrays.copyOf(classIds, size),
+                Arrays.copyOf(nameIds, size), Arrays.copyOf(parameterIds, size));
+    }
+
+    SymbolTable getSymbols() {
+        return symbols;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int intern(CodeSlicer.Method method) {
+        return intern(symbols.intern(method.getPackageName()),
+                symbols.intern(method.getClassName()),
+                symbols.intern(method.getMethodName()),
+                method.getParameters() == null ? NO_PARAMETERS : symbols.intern(method.getParameters()));
+    }
+
+    int intern(int packageId, int classId, int nameId) {
+        return intern(packageId, classId, nameId, NO_PARAMETERS);
+    }
+
+    int intern(int packageId, int classId, int nameId, int parameterId) {
+        int mask = slots.length - 1;
+        int slot = hash(packageId, classId, nameId, parameterId) & mask;
+        while (slots[slot] != EMPTY) {
+            int id = slots[slot];
+            if (packageIds[id] == packageId && classIds[id] == classId && nameIds[id] == nameId && parameterIds[id] == parameterId) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (size == packageIds.length) {
+            int capacity = Math.max(16, size + (size >> 1));
+            packageIds = Arrays.copyOf(packageIds, capacity);
+            classIds = Arrays.copyOf(classIds, capacity);
+            nameIds = Arrays.copyOf(nameIds, capacity);
+            parameterIds = Arrays.copyOf(parameterIds, capacity);
+        }
+        int id = size++;
+        packageIds[id] = packageId;
+        classIds[id] = classId;
+        nameIds[id] = nameId;
+        parameterIds[id] = parameterId;
+        slots[slot] = id;
+        if (size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        return id;
+    }
+
+    //returns -1 when the method is not part of the table
+    int lookup(CodeSlicer.Method method) {
+        int packageId = symbols.lookup(method.getPackageName());
+        int classId = symbols.lookup(method.getClassName());
+        int nameId = symbols.lookup(method.getMethodName());
+        int parameterId = method.getParameters() == null ? NO_PARAMETERS : symbols.lookup(method.getParameters());
+        if (packageId < 0 || classId < 0 || nameId < 0 || (parameterId < 0 && method.getParameters() != null)) {
+            return EMPTY;
+        }
+        int mask = slots.length - 1;
+        int slot = hash(packageId, classId, nameId, parameterId) & mask;
+        while (slots[slot] != EMPTY) {
+            int id = slots[slot];
+            if (packageIds[id] == packageId && classIds[id] == classId && nameIds[id] == nameId && parameterIds[id] == parameterId) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    // ids of every method with the package, class and name of method, whatever its parameters; a linear scan,
+    // meant for the occasional target written without a parameter list
+    int[] lookupOverloads(CodeSlicer.Method method) {
+        int packageId = symbols.lookup(method.getPackageName());
+        int classId = symbols.lookup(method.getClassName());
+        int nameId = symbols.lookup(method.getMethodName());
+        if (packageId < 0 || classId < 0 || nameId < 0) {
+            return new int[0];
+        }
+        int[] ids = new int[4];
+        int count = 0;
+        for (int id = 0; id < size; id++) {
+            if (nameIds[id] == nameId && classIds[id] == classId && packageIds[id] == packageId) {
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                }
+                ids[count++] = id;
+            }
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    CodeSlicer.Method get(int id) {
+        return new CodeSlicer.Method(symbols.get(packageIds[id]), symbols.get(classIds[id]), symbols.get(nameIds[id]),
+                parameterIds[id] == NO_PARAMETERS ? null : symbols.get(parameterIds[id]));
+    }
+
+    int getPackageId(int id) {
+        return packageIds[id];
+    }
+
+    int getClassId(int id) {
+        return classIds[id];
+    }
+
+    int getNameId(int id) {
+        return nameIds[id];
+    }
+
+    int getParameterId(int id) {
+        return parameterIds[id];
+    }
+
+    private void rehash(int newLength) {
+        int[] newSlots = new int[newLength];
+        Arrays.fill(newSlots, EMPTY);
+        int mask = newLength - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hash(packageIds[id], classIds[id], nameIds[id], parameterIds[id]) & mask;
+            while (newSlots[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            newSlots[slot] = id;
+        }
+        slots = newSlots;
+    }
+
+    private static int hash(int packageId, int classId, int nameId, int parameterId) {
+        int h = packageId * 0x9E3779B1;
+        h = (h ^ classId) * 0x85EBCA77;
+        h = (h ^ nameId) * 0xC2B2AE3D;
+        h = (h ^ parameterId) * 0x27D4EB2F;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int n) {
+        int size = Integer.highestOneBit(Math.max(16, n - 1)) << 1;
+        return size < 0 ? 1 << 30 : size;
+    }
+}
@@ -0,0 +1,213 @@
+package Analyzer.slicer;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+// Bounded breadth-first neighborhood of a method on a CompactGraph: callees and/or callers up to a depth,
+// with per-level fan-out caps and an overall size budget. A query object owns its visited marks and
+// buffers and reuses them across queries, so it is cheap to run for every target of a batch but must
+// not be shared between threads.
+//
+// Results are ordered level by level and by ascending method id within a level. depth(i) is the hop
+// distance of the i-th result, positive for callees and negative for callers. In BOTH mode callees and
+// callers are searched with separate marks and alternate level by level (callees first), so a method that
+// is both is reported on each side and the budget goes to the nearest methods of either side.
+class NeighborhoodQuery {
+    enum Direction {
+        CALLEES, CALLERS, BOTH
+    }
+
+    private final CompactGraph graph;
+    // created when a query first needs that direction; the caller side needs the graph's reverse index
+    private Walk callees;
+    private Walk callers;
+
+    private Direction direction = Direction.CALLEES;
+    private int maxDepth = 2;
+    private int[] fanOutCaps = {Integer.MAX_VALUE};
+    private int maxResults = Integer.MAX_VALUE;
+
+    private int stamp;
+    private int[] candidates = new int[64];
+    private int[] resultIds = new int[64];
+    private int[] resultDepths = new int[64];
+    private int resultSize;
+
+    NeighborhoodQuery(CompactGraph graph) {
+        this.graph = graph;
+    }
+
+    CompactGraph getGraph() {
+        return graph;
+    }
+
+    NeighborhoodQuery direction(Direction direction) {
+        this.direction = direction;
+        return this;
+    }
+
+    NeighborhoodQuery maxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+        return this;
+    }
+
+    // fanOutCaps[level - 1] bounds the degree of a node that is still expanded at that level; the last cap
+    // applies to all deeper levels. Hubs above the cap are reported but their neighbors are not followed.
+    NeighborhoodQuery fanOutCaps(int... fanOutCaps) {
+        this.fanOutCaps = fanOutCaps.length == 0 ? new int[]{Integer.MAX_VALUE} : fanOutCaps.clone();
+        return this;
+    }
+
+    NeighborhoodQuery maxResults(int maxResults) {
+        this.maxResults = maxResults;
+        return this;
+    }
+
+    // runs the query and returns the number of results; read them back with id(i) and depth(i)
+    int run(int target) {
+        resultSize = 0;
+        if (target < 0 || target >= graph.methodCount()) {
+            return 0;
+        }
+        nextStamp();
+        Walk calleeWalk = null;
+        Walk callerWalk = null;
+        if (direction != Direction.CALLERS) {
+            if (callees == null) {
+                callees = new Walk(graph.getOffsets(), graph.getTargets(), 1);
+            }
+            calleeWalk = callees;
+            calleeWalk.start(target);
+        }
+        if (direction != Direction.CALLEES) {
+            if (callers == null) {
+                callers = new Walk(graph.getReverseOffsets(), graph.getReverseTargets(), -1);
+            }
+            callerWalk = callers;
+            callerWalk.start(target);
+        }
+        for (int level = 1; level <= maxDepth && resultSize < maxResults; level++) {
+            boolean expanded = false;
+            if (calleeWalk != null && calleeWalk.frontierSize > 0) {
+                calleeWalk.step(target, level);
+                expanded = true;
+            }
+            if (callerWalk != null && callerWalk.frontierSize > 0 && resultSize < maxResults) {
+                callerWalk.step(target, level);
+                expanded = true;
+            }
+            if (!expanded) {
+                break;
+            }
+        }
+        return resultSize;
+    }
+
+    int size() {
+        return resultSize;
+    }
+
+    int id(int i) {
+        return resultIds[i];
+    }
+
+    int depth(int i) {
+        return resultDepths[i];
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(resultIds, resultSize);
+    }
+
+    Set<CodeSlicer.Method> query(CodeSlicer.Method method) {
+        run(graph.idOf(method));
+        Set<CodeSlicer.Method> result = new LinkedHashSet<>();
+        for (int i = 0; i < resultSize; i++) {
+            result.add(graph.methodOf(resultIds[i]));
+        }
+        return result;
+    }
+
+    // one direction of the search, with its own visited marks and frontier
+    private final class Walk {
+        private final int[] rowOffsets;
+        private final int[] rowTargets;
+        private final int sign;
+        private final int[] visited;
+        private int[] frontier = new int[64];
+        private int frontierSize;
+
+        Walk(int[] rowOffsets, int[] rowTargets, int sign) {
+            this.rowOffsets = rowOffsets;
+            this.rowTargets = rowTargets;
+            this.sign = sign;
+            this.visited = new int[graph.methodCount()];
+        }
+
+        void start(int target) {
+            visited[target] = stamp;
+            frontier[0] = target;
+            frontierSize = 1;
+        }
+
+        // adds the unvisited neighbors of the frontier as results at this level and makes them the next frontier
+        void step(int target, int level) {
+            int cap = fanOutCaps[Math.min(level, fanOutCaps.length) - 1];
+            int candidateCount = 0;
+            for (int f = 0; f < frontierSize; f++) {
+                int node = frontier[f];
+                int start = rowOffsets[node];
+                int end = rowOffsets[node + 1];
+                if (end - start > cap && node != target) {
+                    continue;
+                }
+                for (int i = start; i < end; i++) {
+                    int neighbor = rowTargets[i];
+                    if (visited[neighbor] != stamp) {
+                        visited[neighbor] = stamp;
+                        if (candidateCount == candidates.length) {
+                            candidates = Arrays.copyOf(candidates, candidateCount * 2);
+                        }
+                        candidates[candidateCount++] = neighbor;
+                    }
+                }
+            }
+
+            Arrays.sort(candidates, 0, candidateCount);
+            int accepted = Math.min(candidateCount, maxResults - resultSize);
+            ensureResultCapacity(resultSize + accepted);
+            for (int i = 0; i < accepted; i++) {
+                resultIds[resultSize] = candidates[i];
+                resultDepths[resultSize] = sign * level;
+                resultSize++;
+            }
+
+            if (frontier.length < accepted) {
+                frontier = new int[candidates.length];
+            }
+            System.arraycopy(candidates, 0, frontier, 0, accepted);
+            frontierSize = accepted;
+        }
+    }
+
+    private void ensureResultCapacity(int capacity) {
+        if (capacity > resultIds.length) {
+            int length = Math.max(capacity, resultIds.length * 2);
+            resultIds = Arrays.copyOf(resultIds, length);
+            resultDepths = Arrays.copyOf(resultDepths, length);
+        }
+    }
+
+    private void nextStamp() {
+        if (++stamp == Integer.MAX_VALUE) {
+            if (callees != null) {
+                Arrays.fill(callees.visited, 0);
+            }
+            if (callers != null) {
+                Arrays.fill(callers.visited, 0);
+            }
+            stamp = 1;
+        }
+    }
+}
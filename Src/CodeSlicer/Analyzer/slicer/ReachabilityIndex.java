@@ -0,0 +1,357 @@
+package Analyzer.slicer;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Answers "can method A reach method B" on a CompactGraph without a traversal per question. The graph is
+// condensed into its strongly connected components with an iterative Tarjan (deep call chains would overflow
+// the stack of the recursive one), and every component of the condensed DAG gets GRAIL interval labels from a
+// few randomized post-order traversals: if B is reachable from A, B's interval is nested in A's in every
+// labeling. Most negative queries are rejected by the labels and the topological order alone, queries inside
+// one component are answered by the component ids, and targets below the source in the first traversal's
+// spanning forest are accepted outright. The rest fall back to a depth-first search over the DAG that skips
+// every component whose labels already rule the target out and stops at the first component whose spanning
+// subtree holds the target.
+class ReachabilityIndex {
+    private static final int DEFAULT_TRAVERSALS = 3;
+
+    private final CompactGraph graph;
+    private final int[] component;
+    private final int componentCount;
+    private final int[] componentSizes;
+    private final int[] dagOffsets;
+    private final int[] dagTargets;
+    // labels[2 * (t * componentCount + c)] .. [+1] is the [low, rank] interval of component c in traversal t
+    private final int[] labels;
+    private final int traversals;
+    // pre-order numbers of the first traversal; together with its ranks they give spanning-tree intervals
+    private final int[] treeOrder;
+    // each search holds a mark array as long as the DAG has components, so concurrent queries share a pool of
+    // at most `searchers` of them; a search made while the pool is empty is dropped if it is full again
+    private final BlockingQueue<Search> searches;
+
+    ReachabilityIndex(CompactGraph graph) {
+        this(graph, 1);
+    }
+
+    ReachabilityIndex(CompactGraph graph, int searchers) {
+        this(graph, DEFAULT_TRAVERSALS, 42L, searchers);
+    }
+
+    ReachabilityIndex(CompactGraph graph, int traversals, long seed, int searchers) {
+        this.graph = graph;
+        int[] offsets = graph.getOffsets();
+        int[] targets = graph.getTargets();
+        int methodCount = graph.methodCount();
+
+        component = new int[methodCount];
+        componentCount = condense(offsets, targets, methodCount, component);
+        componentSizes = new int[componentCount];
+        for (int id = 0; id < methodCount; id++) {
+            componentSizes[component[id]]++;
+        }
+
+        int[][] dag = condensedEdges(offsets, targets, methodCount);
+        dagOffsets = dag[0];
+        dagTargets = dag[1];
+
+        this.traversals = Math.max(1, traversals);
+        labels = new int[2 * this.traversals * componentCount];
+        treeOrder = new int[componentCount];
+        Random random = new Random(seed);
+        for (int t = 0; t < this.traversals; t++) {
+            label(t, random);
+        }
+        searches = new ArrayBlockingQueue<>(Math.max(1, searchers));
+    }
+
+    int componentOf(int id) {
+        return component[id];
+    }
+
+    int componentCount() {
+        return componentCount;
+    }
+
+    int componentSize(int c) {
+        return componentSizes[c];
+    }
+
+    int condensedEdgeCount() {
+        return dagTargets.length;
+    }
+
+    // true when there is a call path of zero or more edges from "from" to "to"
+    boolean reaches(int from, int to) {
+        if (from < 0 || to < 0 || from >= component.length || to >= component.length) {
+            return false;
+        }
+        int source = component[from];
+        int target = component[to];
+        if (source == target) {
+            return true;
+        }
+        if (!mayReach(source, target)) {
+            return false;
+        }
+        if (treeReaches(source, target)) {
+            return true;
+        }
+        Search search = searches.poll();
+        if (search == null) {
+            search = new Search(componentCount);
+        }
+        try {
+            return search.run(source, target);
+        } finally {
+            searches.offer(search);
+        }
+    }
+
+    boolean reaches(CodeSlicer.Method from, CodeSlicer.Method to) {
+        return reaches(graph.idOf(from), graph.idOf(to));
+    }
+
+    // Tarjan numbers components in reverse topological order, so a component only reaches lower numbers;
+    // on top of that every labeling has to nest the target's interval in the source's
+    private boolean mayReach(int source, int target) {
+        if (target > source) {
+            return false;
+        }
+        for (int t = 0; t < traversals; t++) {
+            int s = 2 * (t * componentCount + source);
+            int d = 2 * (t * componentCount + target);
+            if (labels[d] < labels[s] || labels[d + 1] > labels[s + 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // exact positive cut: target was discovered below source in the first traversal's spanning forest
+    private boolean treeReaches(int source, int target) {
+        return treeOrder[source] <= treeOrder[target] && labels[2 * target + 1] <= labels[2 * source + 1];
+    }
+
+    // iterative Tarjan; fills component[] and returns the number of components
+    private static int condense(int[] offsets, int[] targets, int methodCount, int[] component) {
+        int[] index = new int[methodCount];
+        int[] low = new int[methodCount];
+        int[] cursor = new int[methodCount];
+        int[] stack = new int[methodCount];
+        int[] callStack = new int[methodCount];
+        Arrays.fill(index, -1);
+        // component[v] == -1 while v is on the Tarjan stack
+        Arrays.fill(component, -2);
+        int counter = 0;
+        int stackSize = 0;
+        int componentCount = 0;
+
+        for (int root = 0; root < methodCount; root++) {
+            if (index[root] != -1) {
+                continue;
+            }
+            int depth = 0;
+            index[root] = low[root] = counter++;
+            cursor[root] = offsets[root];
+            stack[stackSize++] = root;
+            component[root] = -1;
+            callStack[depth++] = root;
+
+            while (depth > 0) {
+                int v = callStack[depth - 1];
+                if (cursor[v] < offsets[v + 1]) {
+                    int w = targets[cursor[v]++];
+                    if (index[w] == -1) {
+                        index[w] = low[w] = counter++;
+                        cursor[w] = offsets[w];
+                        stack[stackSize++] = w;
+                        component[w] = -1;
+                        callStack[depth++] = w;
+                    } else if (component[w] == -1 && index[w] < low[v]) {
+                        low[v] = index[w];
+                    }
+                    continue;
+                }
+                depth--;
+                if (low[v] == index[v]) {
+                    int w;
+                    do {
+                        w = stack[--stackSize];
+                        component[w] = componentCount;
+                    } while (w != v);
+                    componentCount++;
+                }
+                if (depth > 0) {
+                    int parent = callStack[depth - 1];
+                    if (low[v] < low[parent]) {
+                        low[parent] = low[v];
+                    }
+                }
+            }
+        }
+        return componentCount;
+    }
+
+    // CSR of the condensed DAG without self loops or duplicate edges, rows sorted
+    private int[][] condensedEdges(int[] offsets, int[] targets, int methodCount) {
+        int[] rowOffsets = new int[componentCount + 1];
+        for (int v = 0; v < methodCount; v++) {
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                if (component[targets[e]] != component[v]) {
+                    rowOffsets[component[v] + 1]++;
+                }
+            }
+        }
+        for (int c = 0; c < componentCount; c++) {
+            rowOffsets[c + 1] += rowOffsets[c];
+        }
+        int[] next = Arrays.copyOf(rowOffsets, componentCount);
+        int[] rowTargets = new int[rowOffsets[componentCount]];
+        for (int v = 0; v < methodCount; v++) {
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                int w = component[targets[e]];
+                if (w != component[v]) {
+                    rowTargets[next[component[v]]++] = w;
+                }
+            }
+        }
+
+        int[] seen = new int[componentCount];
+        Arrays.fill(seen, -1);
+        int write = 0;
+        for (int c = 0; c < componentCount; c++) {
+            int start = rowOffsets[c];
+            int end = rowOffsets[c + 1];
+            rowOffsets[c] = write;
+            for (int e = start; e < end; e++) {
+                int w = rowTargets[e];
+                if (seen[w] != c) {
+                    seen[w] = c;
+                    rowTargets[write++] = w;
+                }
+            }
+            Arrays.sort(rowTargets, rowOffsets[c], write);
+        }
+        rowOffsets[componentCount] = write;
+        return new int[][]{rowOffsets, write == rowTargets.length ? rowTargets : Arrays.copyOf(rowTargets, write)};
+    }
+
+    // one randomized post-order traversal of the DAG: rank is the post-order number, low the smallest rank below
+    private void label(int traversal, Random random) {
+        int base = 2 * traversal * componentCount;
+        int[] cursor = new int[componentCount];
+        int[] remaining = new int[componentCount];
+        int[] callStack = new int[componentCount];
+        boolean[] visited = new boolean[componentCount];
+
+        int[] roots = new int[componentCount];
+        for (int c = 0; c < componentCount; c++) {
+            roots[c] = c;
+        }
+        for (int i = componentCount - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = roots[i];
+            roots[i] = roots[j];
+            roots[j] = swap;
+        }
+
+        int rank = 0;
+        int order = 0;
+        for (int root : roots) {
+            if (visited[root]) {
+                continue;
+            }
+            int depth = 0;
+            enter(root, base, random, cursor, remaining, visited);
+            if (traversal == 0) {
+                treeOrder[root] = order++;
+            }
+            callStack[depth++] = root;
+            while (depth > 0) {
+                int c = callStack[depth - 1];
+                if (remaining[c] > 0) {
+                    // children are visited starting from a random edge and wrapping around
+                    int start = dagOffsets[c];
+                    int degree = dagOffsets[c + 1] - start;
+                    int w = dagTargets[start + cursor[c]];
+                    cursor[c] = cursor[c] + 1 == degree ? 0 : cursor[c] + 1;
+                    remaining[c]--;
+                    if (!visited[w]) {
+                        enter(w, base, random, cursor, remaining, visited);
+                        if (traversal == 0) {
+                            treeOrder[w] = order++;
+                        }
+                        callStack[depth++] = w;
+                    } else if (labels[base + 2 * w] < labels[base + 2 * c]) {
+                        labels[base + 2 * c] = labels[base + 2 * w];
+                    }
+                    continue;
+                }
+                depth--;
+                labels[base + 2 * c + 1] = rank;
+                if (rank < labels[base + 2 * c]) {
+                    labels[base + 2 * c] = rank;
+                }
+                rank++;
+                if (depth > 0) {
+                    int parent = callStack[depth - 1];
+                    if (labels[base + 2 * c] < labels[base + 2 * parent]) {
+                        labels[base + 2 * parent] = labels[base + 2 * c];
+                    }
+                }
+            }
+        }
+    }
+
+    private void enter(int c, int base, Random random, int[] cursor, int[] remaining, boolean[] visited) {
+        visited[c] = true;
+        int degree = dagOffsets[c + 1] - dagOffsets[c];
+        cursor[c] = degree == 0 ? 0 : random.nextInt(degree);
+        remaining[c] = degree;
+        labels[base + 2 * c] = Integer.MAX_VALUE;
+    }
+
+    // pooled depth-first search over the condensed DAG with stamped visited marks
+    private class Search {
+        private final int[] visited;
+        private int stamp;
+        private int[] stack = new int[64];
+
+        Search(int componentCount) {
+            this.visited = new int[componentCount];
+        }
+
+        boolean run(int source, int target) {
+            if (++stamp == 0) {
+                Arrays.fill(visited, 0);
+                stamp = 1;
+            }
+            int size = 0;
+            stack[size++] = source;
+            visited[source] = stamp;
+            while (size > 0) {
+                int c = stack[--size];
+                // rows are sorted, so pushing them backwards explores the child closest to the target in
+                // topological order first
+                for (int e = dagOffsets[c + 1] - 1; e >= dagOffsets[c]; e--) {
+                    int w = dagTargets[e];
+                    if (visited[w] == stamp || !mayReach(w, target)) {
+                        continue;
+                    }
+                    if (w == target || treeReaches(w, target)) {
+                        return true;
+                    }
+                    visited[w] = stamp;
+                    if (size == stack.length) {
+                        stack = Arrays.copyOf(stack, size * 2);
+                    }
+                    stack[size++] = w;
+                }
+            }
+            return false;
+        }
+    }
+}
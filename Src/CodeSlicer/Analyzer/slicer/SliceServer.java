@@ -0,0 +1,403 @@
+package Analyzer.slicer;
+
+import Analyzer.util.MethodFinder;
+import Analyzer.util.MethodIndex;
+import Analyzer.util.Metrics;
+import Analyzer.util.SnippetStore;
+import Analyzer.util.VariableContext;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Keeps one call graph and one method index resident and answers requests over a local socket, one JSON
+// object per line in each direction. Every connection gets its own thread (a virtual thread on Java 21+) and
+// is served in order; open several connections for concurrent requests.
+//   {"op": "slice", "target": "pkg.Class:name(params)"}      same record as a batch line
+//   {"op": "variables", "target": "pkg.Class:name(params)"}  fields, parameters and locals of each overload
+//   {"op": "reload", "files": ["src/pkg/Class.java"]}        re-index these files, or every changed file
+//   {"op": "update", "diff": "changes.diff"}                  apply a call-graph diff (see CallGraphDiff)
+//   {"op": "reaches", "from": "pkg.A:a()", "to": "pkg.B:b()"}  whether a call path leads from one to the other
+// Files to reload must be inside the source directory and diffs inside it or the call graph's directory;
+// paths are checked after resolving ".." and symbolic links, and requests naming other files are refused.
+// Reachability is answered from the compact graph's ReachabilityIndex, so it needs compact mode; a name
+// without parameters stands for all of its overloads.
+//   {"op": "snippets", "ids": ["3f2a..."]}                    texts of snippet ids in slice records (with -z)
+//   {"op": "stats"}                                           p50/p99/max latency per op, and metrics
+// An "id" member of a request is copied into its response.
+class SliceServer {
+    private static final int LATENCY_SAMPLES = 8192;
+
+    private final BatchSlicer slicer;
+    private final MethodFinder finder;
+    private final Consumer<CallGraphDiff> updateGraph;
+    // null unless the resident graph is a CompactGraph
+    private final Supplier<CompactGraph> compactGraph;
+    // bound on the reachability searches kept between requests
+    private final int threads;
+    // canonical directories that reload and update requests may name files in
+    private final Path sourceRoot;
+    private final Path diffRoot;
+    // null unless slices refer to sources by id
+    private final SnippetStore snippets;
+    private final ObjectMapper mapper = new ObjectMapper();
+    // lookups share the graph and the index; reload and update change them and need them to themselves
+    private final ReadWriteLock indexLock = new ReentrantReadWriteLock();
+    private final Map<String, Latencies> latencies = new ConcurrentHashMap<>();
+
+    SliceServer(BatchSlicer slicer, MethodFinder finder, Consumer<CallGraphDiff> updateGraph, Supplier<CompactGraph> compactGraph,
+                File diffDirectory, SnippetStore snippets, int threads) throws IOException {
+        this.slicer = slicer;
+        this.finder = finder;
+        this.updateGraph = updateGraph;
+        this.compactGraph = compactGraph;
+        this.sourceRoot = new File(finder.getProjectSrcDir()).getCanonicalFile().toPath();
+        this.diffRoot = diffDirectory.getCanonicalFile().toPath();
+        this.snippets = snippets;
+        this.threads = Math.max(1, threads);
+    }
+
+    // a port number listens on the loopback interface, anything else is a Unix-domain socket path
+    void serve(String address) throws IOException {
+        ExecutorService executor = newConnectionExecutor();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> System.err.println(latencyReport()), "latency-report"));
+        if (snippets != null) {
+            // ids already handed out must be readable after the server is stopped
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    snippets.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }, "snippet-store"));
+        }
+        try (ServerSocketChannel server = open(address)) {
+            System.err.println("Serving on " + server.getLocalAddress());
+            while (true) {
+                SocketChannel connection = server.accept();
+                executor.execute(() -> handle(connection));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static ServerSocketChannel open(String address) throws IOException {
+        if (address.matches("\\d+")) {
+            ServerSocketChannel server = ServerSocketChannel.open();
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(address)));
+            return server;
+        }
+        Path path = Paths.get(address);
+        if (Files.isRegularFile(path) || Files.isDirectory(path)) {
+            throw new IOException("not replacing " + path + " with a socket");
+        }
+        // a socket left behind by an earlier run
+        Files.deleteIfExists(path);
+        path.toFile().deleteOnExit();
+        // Unix-domain channels exist from Java 16 on; looked up reflectively so older JDKs still build this
+        try {
+            ServerSocketChannel server = (ServerSocketChannel) ServerSocketChannel.class.getMethod("open", ProtocolFamily.class)
+                    .invoke(null, StandardProtocolFamily.valueOf("UNIX"));
+            server.bind((SocketAddress) Class.forName("java.net.UnixDomainSocketAddress").getMethod("of", String.class)
+                    .invoke(null, address));
+            return server;
+        } catch (ReflectiveOperationException | IllegalArgumentException e) {
+            throw new IOException("Unix-domain sockets need Java 16 or later; pass a port number instead", e);
+        }
+    }
+
+    // virtual threads where the JVM has them (Java 21+), otherwise a cached pool of platform threads
+    static ExecutorService newConnectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private void handle(SocketChannel connection) {
+        try (SocketChannel channel = connection;
+             BufferedReader in = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                out.write(respond(line));
+                out.write('\n');
+                out.flush();
+            }
+        } catch (IOException e) {
+            Metrics.increment("failures.server.connection");
+            System.err.println("Connection closed: " + e.getMessage());
+        }
+    }
+
+    String respond(String line) {
+        long start = System.nanoTime();
+        Map<String, Object> response = new LinkedHashMap<>();
+        String op = "invalid";
+        try {
+            JsonNode request = mapper.readTree(line);
+            op = request.path("op").asText("slice");
+            if (request.has("id")) {
+                response.put("id", request.get("id"));
+            }
+            response.put("op", op);
+            switch (op) {
+                case "slice":
+                    indexLock.readLock().lock();
+                    try {
+                        response.putAll(slicer.sliceRecord(request.path("target").asText()));
+                    } finally {
+                        indexLock.readLock().unlock();
+                    }
+                    break;
+                case "variables":
+                    indexLock.readLock().lock();
+                    try {
+                        variables(request.path("target").asText(), response);
+                    } finally {
+                        indexLock.readLock().unlock();
+                    }
+                    break;
+                case "reload":
+                    indexLock.writeLock().lock();
+                    try {
+                        reload(request.get("files"), response);
+                    } finally {
+                        indexLock.writeLock().unlock();
+                    }
+                    break;
+                case "update":
+                    indexLock.writeLock().lock();
+                    try {
+                        update(request.path("diff").asText(), response);
+                    } finally {
+                        indexLock.writeLock().unlock();
+                    }
+                    break;
+                case "reaches":
+                    indexLock.readLock().lock();
+                    try {
+                        reaches(request.path("from").asText(), request.path("to").asText(), response);
+                    } finally {
+                        indexLock.readLock().unlock();
+                    }
+                    break;
+                case "snippets":
+                    snippets(request.get("ids"), response);
+                    break;
+                case "stats":
+                    response.put("latency", latencySummary());
+                    if (Metrics.ENABLED) {
+                        response.put("metrics", Metrics.summary());
+                    }
+                    break;
+                default:
+                    op = "invalid";
+                    response.put("error", "unknown op");
+            }
+        } catch (JsonProcessingException e) {
+            Metrics.increment("failures.server.request");
+            response.put("error", "malformed request: " + e.getOriginalMessage());
+        } catch (IOException | RuntimeException e) {
+            Metrics.increment("failures.server.request");
+            response.put("error", e.toString());
+        }
+        Metrics.increment("server.requests");
+        latencies.computeIfAbsent(op, k -> new Latencies()).record(System.nanoTime() - start);
+        try {
+            return mapper.writeValueAsString(response);
+        } catch (IOException e) {
+            return "{\"error\":\"unserializable response\"}";
+        }
+    }
+
+    private void variables(String target, Map<String, Object> response) {
+        response.put("target", target);
+        CodeSlicer.Method method;
+        try {
+            method = CodeSlicer.Method.parseMethod(target);
+        } catch (IndexOutOfBoundsException e) {
+            response.put("error", "malformed method signature");
+            return;
+        }
+        List<Map<String, Object>> overloads = new ArrayList<>();
+        for (MethodIndex.Entry entry : finder.findMethods(method.getPackageName(), method.getClassName(), method.getMethodName(),
+                method.getParameters())) {
+            Map<String, Object> overload = new LinkedHashMap<>();
+            overload.put("file", entry.file.getPath());
+            overload.put("class", entry.className);
+            overload.put("parameters", entry.parameterTypes);
+            List<Map<String, String>> variables = new ArrayList<>();
+            for (VariableContext.Variable variable : finder.getVariables(entry)) {
+                Map<String, String> fields = new LinkedHashMap<>();
+                fields.put("scope", variable.scope);
+                fields.put("name", variable.name);
+                fields.put("type", variable.type);
+                variables.add(fields);
+            }
+            overload.put("variables", variables);
+            overloads.add(overload);
+        }
+        response.put("methods", overloads);
+    }
+
+    private void reload(JsonNode files, Map<String, Object> response) throws IOException {
+        if (files == null || !files.isArray()) {
+            response.put("reloaded", finder.reloadChanged());
+            return;
+        }
+        List<File> changed = new ArrayList<>();
+        for (JsonNode file : files) {
+            File path = new File(file.asText());
+            if (!isInside(path, sourceRoot)) {
+                Metrics.increment("failures.server.path");
+                response.put("error", "not in the source directory: " + file.asText());
+                return;
+            }
+            changed.add(path);
+        }
+        response.put("reloaded", finder.reload(changed));
+    }
+
+    private void update(String diffFile, Map<String, Object> response) throws IOException {
+        if (!isInside(new File(diffFile), sourceRoot) && !isInside(new File(diffFile), diffRoot)) {
+            Metrics.increment("failures.server.path");
+            response.put("error", "not in the source or call-graph directory: " + diffFile);
+            return;
+        }
+        CallGraphDiff diff;
+        try {
+            diff = CallGraphDiff.load(diffFile);
+        } catch (IOException e) {
+            response.put("error", "cannot read diff: " + e.getMessage());
+            return;
+        }
+        updateGraph.accept(diff);
+        response.put("added", diff.getAddedEdges().size());
+        response.put("removed", diff.getRemovedEdges().size());
+        response.put("removedMethods", diff.getRemovedMethods().size());
+        response.put("malformed", diff.getMalformedLines());
+    }
+
+    private void reaches(String from, String to, Map<String, Object> response) {
+        response.put("from", from);
+        response.put("to", to);
+        if (compactGraph == null) {
+            response.put("error", "reachability needs the compact graph; start the server with -c");
+            return;
+        }
+        CompactGraph graph = compactGraph.get();
+        List<CodeSlicer.Method> sources;
+        List<CodeSlicer.Method> targets;
+        try {
+            sources = graph.overloadsOf(CodeSlicer.Method.parseMethod(from));
+            targets = graph.overloadsOf(CodeSlicer.Method.parseMethod(to));
+        } catch (IndexOutOfBoundsException e) {
+            response.put("error", "malformed method signature");
+            return;
+        }
+        // the index is built on the first request after loading or after each update
+        ReachabilityIndex index = graph.getReachabilityIndex(threads);
+        boolean reaches = false;
+        for (CodeSlicer.Method source : sources) {
+            for (CodeSlicer.Method target : targets) {
+                if (index.reaches(source, target)) {
+                    reaches = true;
+                    break;
+                }
+            }
+        }
+        response.put("reaches", reaches);
+    }
+
+    // whether file, once "..", "." and symbolic links are resolved, lies under the canonical directory root
+    private static boolean isInside(File file, Path root) throws IOException {
+        return file.getCanonicalFile().toPath().startsWith(root);
+    }
+
+    private void snippets(JsonNode ids, Map<String, Object> response) throws IOException {
+        if (snippets == null) {
+            response.put("error", "no snippet store; start the server with -z");
+            return;
+        }
+        Map<String, String> texts = new LinkedHashMap<>();
+        if (ids != null) {
+            for (JsonNode id : ids) {
+                texts.put(id.asText(), snippets.get(id.asText()));
+            }
+        }
+        response.put("snippets", texts);
+    }
+
+    private Map<String, Object> latencySummary() {
+        Map<String, Object> summary = new TreeMap<>();
+        latencies.forEach((op, samples) -> summary.put(op, samples.summary()));
+        return summary;
+    }
+
+    private String latencyReport() {
+        StringBuilder report = new StringBuilder("Request latency:");
+        latencySummary().forEach((op, summary) -> report.append("\n  ").append(op).append(' ').append(summary));
+        return report.toString();
+    }
+
+    // the most recent LATENCY_SAMPLES request times of one op
+    private static class Latencies {
+        private final long[] samples = new long[LATENCY_SAMPLES];
+        private long count;
+
+        synchronized void record(long nanos) {
+            samples[(int) (count++ % LATENCY_SAMPLES)] = nanos;
+        }
+
+        synchronized Map<String, Object> summary() {
+            long[] sorted = Arrays.copyOf(samples, (int) Math.min(count, LATENCY_SAMPLES));
+            Arrays.sort(sorted);
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("count", count);
+            if (sorted.length > 0) {
+                summary.put("p50Us", sorted[(sorted.length - 1) / 2] / 1000);
+                summary.put("p99Us", sorted[(int) Math.ceil(sorted.length * 0.99) - 1] / 1000);
+                summary.put("maxUs", sorted[sorted.length - 1] / 1000);
+            }
+            return summary;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package Analyzer.slicer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Interns package/class/method names so every distinct string is stored once and referred to by an int id.
+class SymbolTable {
+    private final Map<String, Integer> ids;
+    private final List<String> symbols;
+
+    SymbolTable() {
+        this.ids = new HashMap<>();
+        this.symbols = new ArrayList<>();
+    }
+
+    SymbolTable(String[] symbols) {
+        this.ids = new HashMap<>(symbols.length * 2);
+        this.symbols = new ArrayList<>(Arrays.asList(symbols));
+        for (int id = 0; id < symbols.length; id++) {
+            this.ids.put(symbols[id], id);
+        }
+    }
+
+    int intern(String symbol) {
+        Integer id = this.ids.get(symbol);
+        if (id != null) {
+            return id;
+        }
+        int newId = this.symbols.size();
+        this.symbols.add(symbol);
+        this.ids.put(symbol, newId);
+        return newId;
+    }
+
+    //returns -1 when the symbol was never interned
+    int lookup(String symbol) {
+        Integer id = this.ids.get(symbol);
+        return id == null ? -1 : id;
+    }
+
+    String get(int id) {
+        return this.symbols.get(id);
+    }
+
+    int size() {
+        return this.symbols.size();
+    }
+}
@@ -2,93 +2,423 @@ package Analyzer.util;
 
 import org.eclipse.jdt.core.dom.*;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 public class MethodFinder {
+    private static final int DEFAULT_CACHE_SIZE = 256;
+
     private String projectSrcDir;
-    private Map<String, List<TypeDeclaration>> packageClassMap = new HashMap<>();
+    private final MethodIndex methodIndex = new MethodIndex();
+    // original file contents, bounded LRU; snippets are sliced from these buffers
+    private final Map<File, String> sources;
+
+    // lazy mode: only a path index up front, files are parsed into the method index on first lookup
+    private final boolean lazy;
+    private SourcePathIndex pathIndex;
+    private final Map<File, FutureTask<Void>> indexedFiles = new ConcurrentHashMap<>();
+
+    // optional persistent index; files whose size, mtime or content hash match their record are not parsed
+    private MethodIndexStore indexStore;
+    private final AtomicInteger parsedFiles = new AtomicInteger();
+    private final AtomicInteger reusedFiles = new AtomicInteger();
+    // the record each indexed file was last indexed from, keyed by absolute path; reload drops its entries
+    private final Map<String, MethodIndexStore.FileRecord> fileRecords = new ConcurrentHashMap<>();
+    private final Map<String, File> indexedAs = new ConcurrentHashMap<>();
 
     public MethodFinder(String projectSrcDir) {
+        this(projectSrcDir, false, DEFAULT_CACHE_SIZE);
+    }
+
+    public MethodFinder(String projectSrcDir, boolean lazy, int cacheSize) {
         this.projectSrcDir = projectSrcDir;
+        this.lazy = lazy;
+        this.sources = new LinkedHashMap<File, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<File, String> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public void setIndexFile(File indexFile) {
+        this.indexStore = indexFile == null ? null : new MethodIndexStore(indexFile);
     }
 
     public void analyze() {
+        analyze(Runtime.getRuntime().availableProcessors());
+    }
+
+    // parses the whole tree on a pool of workers, each reusing one ASTParser; results are merged in file order
+    public void analyze(int threads) {
+        long start = Metrics.start();
+        try {
+            analyzeTree(threads);
+        } finally {
+            Metrics.stop("methodfinder.analyze", start);
+        }
+    }
+
+    private void analyzeTree(int threads) {
         File root = new File(projectSrcDir);
-        listFiles(root);
+        if (lazy) {
+            pathIndex = new SourcePathIndex(projectSrcDir);
+            return;
+        }
+        List<File> files = new ArrayList<>();
+        listFiles(root, files);
+        Map<String, MethodIndexStore.FileRecord> stored = indexStore == null
+                ? Collections.emptyMap() : indexStore.load(root);
+        MethodIndexStore.FileRecord[] records = new MethodIndexStore.FileRecord[files.size()];
+
+        AtomicInteger next = new AtomicInteger();
+        Runnable worker = () -> {
+            ASTParser parser = ASTParser.newParser(AST.JLS8);
+            for (int i = next.getAndIncrement(); i < records.length; i = next.getAndIncrement()) {
+                File file = files.get(i);
+                MethodIndexStore.FileRecord record = stored.get(relativePath(root, file));
+                if (record == null || record.size != file.length() || record.modified != file.lastModified()) {
+                    record = parse(parser, root, file, record);
+                } else {
+                    reusedFiles.incrementAndGet();
+                    Metrics.increment("methodfinder.filesReused");
+                }
+                records[i] = record;
+            }
+        };
+        if (threads <= 1) {
+            worker.run();
+        } else {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(worker));
+            }
+            try {
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                Metrics.increment("failures.methodfinder.analyze");
+                e.printStackTrace();
+            } finally {
+                executor.shutdown();
+            }
+        }
+
+        boolean changed = records.length != stored.size();
+        List<MethodIndexStore.FileRecord> indexed = new ArrayList<>(records.length);
+        for (int i = 0; i < records.length; i++) {
+            MethodIndexStore.FileRecord record = records[i];
+            if (record != null) {
+                methodIndex.addAll(record.methods);
+                remember(files.get(i), record);
+                changed |= stored.get(record.path) != record;
+                indexed.add(record);
+            }
+        }
+        if (indexStore != null && changed) {
+            long start = Metrics.start();
+            try {
+                indexStore.save(indexed);
+            } catch (IOException e) {
+                Metrics.increment("failures.methodfinder.index.write");
+                System.err.println("Could not write method index: " + e.getMessage());
+            } finally {
+                Metrics.stop("methodfinder.index.write", start);
+            }
+        }
     }
 
-    private void listFiles(File root) {
+    private void listFiles(File root, List<File> javaFiles) {
         File[] files = root.listFiles();
+        Arrays.sort(files);
         for (File file : files) {
             if (file.isDirectory()) {
-                listFiles(file);
+                listFiles(file, javaFiles);
             } else if (file.getName().endsWith(".java")) {
-                analyzeJavaFile(file);
+                javaFiles.add(file);
             }
         }
     }
 
-    private void analyzeJavaFile(File file) {
+    // a file whose content hash still matches its stored record is not parsed again; returns null when the file cannot be read
+    private MethodIndexStore.FileRecord parse(ASTParser parser, File root, File file, MethodIndexStore.FileRecord stored) {
+        long start = Metrics.start();
         try {
-            ASTParser parser = ASTParser.newParser(AST.JLS8);
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            Metrics.add("methodfinder.bytesRead", bytes.length);
+            long hash = MethodIndexStore.hash(bytes);
+            if (stored != null && stored.hash == hash && stored.size == bytes.length) {
+                reusedFiles.incrementAndGet();
+                Metrics.increment("methodfinder.filesReused");
+                return stored.withModified(file.lastModified());
+            }
             parser.setKind(ASTParser.K_COMPILATION_UNIT);
             parser.setResolveBindings(true);
-            String source = readFileToString(file);
-            parser.setSource(source.toCharArray());
+            parser.setSource(new String(bytes, StandardCharsets.UTF_8).toCharArray());
             CompilationUnit cu = (CompilationUnit) parser.createAST(null);
-
-            cu.accept(new ASTVisitor() {
-                public boolean visit(PackageDeclaration node) {
-                    String packageName = node.getName().getFullyQualifiedName();
-                    cu.types().forEach(t -> {
-                        if(t instanceof TypeDeclaration) {
-                            packageClassMap.computeIfAbsent(packageName, k -> new ArrayList<>()).add((TypeDeclaration)t);
-                        }
-                    });
-                    return false;
-                }
-            });
+            parsedFiles.incrementAndGet();
+            Metrics.increment("methodfinder.filesParsed");
+            String packageName = cu.getPackage() == null ? "" : cu.getPackage().getName().getFullyQualifiedName();
+            return new MethodIndexStore.FileRecord(relativePath(root, file), bytes.length, file.lastModified(), hash,
+                    packageName, MethodIndex.collectTypes(cu), MethodIndex.collect(file, cu));
         } catch (IOException e) {
+            Metrics.increment("failures.methodfinder.read");
             e.printStackTrace();
+            return null;
+        } finally {
+            Metrics.stop("methodfinder.parse", start);
         }
     }
 
-    public void printMethodSource(String packageName, String className, String methodName) {
-        List<TypeDeclaration> classes = packageClassMap.get(packageName);
-        if (classes != null) {
-            for (TypeDeclaration type : classes) {
-                if (type.getName().getIdentifier().equals(className)) {
-                    for (MethodDeclaration method : type.getMethods()) {
-                        if (method.getName().getIdentifier().equals(methodName)) {
-                            System.out.println("Source code for method " + methodName + ": " + method.toString());
-                            return;
-                        }
+    private static String relativePath(File root, File file) {
+        return root.toPath().relativize(file.toPath()).toString();
+    }
+
+    private void remember(File file, MethodIndexStore.FileRecord record) {
+        String key = file.getAbsolutePath();
+        fileRecords.put(key, record);
+        indexedAs.put(key, file);
+    }
+
+    // re-indexes files that changed on disk since they were indexed; deleted files are dropped and new files
+    // added. Callers must not run lookups concurrently. Returns the number of files re-indexed or dropped.
+    public int reload(Collection<File> files) {
+        long start = Metrics.start();
+        try {
+            File root = new File(projectSrcDir);
+            ASTParser parser = ASTParser.newParser(AST.JLS8);
+            boolean pathsChanged = false;
+            for (File changed : files) {
+                String key = changed.getAbsolutePath();
+                File file = indexedAs.getOrDefault(key, changed);
+                MethodIndexStore.FileRecord old = fileRecords.remove(key);
+                indexedAs.remove(key);
+                if (old != null) {
+                    methodIndex.removeAll(old.methods);
+                }
+                synchronized (sources) {
+                    sources.remove(file);
+                }
+                pathsChanged |= old == null || !file.isFile();
+                if (lazy) {
+                    // parsed again on the next lookup of one of its classes
+                    indexedFiles.remove(file);
+                } else if (file.isFile()) {
+                    MethodIndexStore.FileRecord record = parse(parser, root, file, null);
+                    if (record != null) {
+                        methodIndex.addAll(record.methods);
+                        remember(file, record);
                     }
                 }
-                for (TypeDeclaration innerType : type.getTypes()) {
-                    if (innerType.getName().getIdentifier().equals(className)) {
-                        for (MethodDeclaration method : innerType.getMethods()) {
-                            if (method.getName().getIdentifier().equals(methodName)) {
-                                System.out.println("Source code for method " + methodName + ": " + method.toString());
-                                return;
-                            }
-                        }
+            }
+            if (lazy && pathsChanged) {
+                pathIndex = new SourcePathIndex(projectSrcDir);
+            }
+            Metrics.add("methodfinder.filesReloaded", files.size());
+            return files.size();
+        } finally {
+            Metrics.stop("methodfinder.reload", start);
+        }
+    }
+
+    // reload of every file whose size or modification time differs from when it was indexed, every new file
+    // (eagerly indexed finders only) and every deleted file
+    public int reloadChanged() {
+        List<File> current = new ArrayList<>();
+        listFiles(new File(projectSrcDir), current);
+        if (lazy) {
+            pathIndex = new SourcePathIndex(projectSrcDir);
+        }
+        Set<String> seen = new HashSet<>();
+        List<File> changed = new ArrayList<>();
+        for (File file : current) {
+            String key = file.getAbsolutePath();
+            seen.add(key);
+            MethodIndexStore.FileRecord record = fileRecords.get(key);
+            if (record == null ? !lazy : record.size != file.length() || record.modified != file.lastModified()) {
+                changed.add(file);
+            }
+        }
+        for (String key : fileRecords.keySet()) {
+            if (!seen.contains(key)) {
+                changed.add(new File(key));
+            }
+        }
+        return reload(changed);
+    }
+
+    public String getProjectSrcDir() {
+        return projectSrcDir;
+    }
+
+    public int getParsedFileCount() {
+        return parsedFiles.get();
+    }
+
+    // the lazy mode's path index; an eagerly indexed finder lists the tree on the first call
+    public synchronized SourcePathIndex getPathIndex() {
+        if (pathIndex == null) {
+            pathIndex = new SourcePathIndex(projectSrcDir);
+        }
+        return pathIndex;
+    }
+
+    public int getReusedFileCount() {
+        return reusedFiles.get();
+    }
+
+    // lazy mode: index the candidate files of the class, each file exactly once even under concurrent lookups
+    private void ensureIndexed(String packageName, String className) {
+        for (File file : pathIndex.candidateFiles(packageName, className)) {
+            FutureTask<Void> task = indexedFiles.get(file);
+            if (task == null) {
+                FutureTask<Void> newTask = new FutureTask<>(() -> {
+                    MethodIndexStore.FileRecord record = parse(ASTParser.newParser(AST.JLS8), new File(projectSrcDir), file, null);
+                    if (record != null) {
+                        methodIndex.addAll(record.methods);
+                        remember(file, record);
                     }
+                    return null;
+                });
+                task = indexedFiles.putIfAbsent(file, newTask);
+                if (task == null) {
+                    task = newTask;
+                    task.run();
                 }
             }
+            try {
+                task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                e.printStackTrace();
+            }
         }
     }
 
-    private String readFileToString(File file) throws IOException {
-        StringBuilder fileContents = new StringBuilder((int) file.length());
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                fileContents.append(line).append("\n");
+    public void printMethodSource(String packageName, String className, String methodName) {
+        for (String source : getMethodSources(packageName, className, methodName)) {
+            System.out.println("Source code for method " + methodName + ": " + source);
+        }
+    }
+
+    // only the overloads matching a call-graph parameter list; every overload when parameters is null
+    public void printMethodSource(String packageName, String className, String methodName, String parameters) {
+        for (String source : getMethodSources(packageName, className, methodName, parameters)) {
+            System.out.println("Source code for method " + methodName + ": " + source);
+        }
+    }
+
+    //returns null when the method is not found; the first declaration when it is overloaded
+    public String getMethodSource(String packageName, String className, String methodName) {
+        List<String> sources = getMethodSources(packageName, className, methodName);
+        return sources.isEmpty() ? null : sources.get(0);
+    }
+
+    // the original source text of every overload, in declaration order
+    public List<String> getMethodSources(String packageName, String className, String methodName) {
+        return slice(findMethods(packageName, className, methodName));
+    }
+
+    public List<String> getMethodSources(String packageName, String className, String methodName, int arity) {
+        List<MethodIndex.Entry> matches = new ArrayList<>();
+        for (MethodIndex.Entry entry : findMethods(packageName, className, methodName)) {
+            if (entry.arity == arity) {
+                matches.add(entry);
+            }
+        }
+        return slice(matches);
+    }
+
+    public List<String> getMethodSources(String packageName, String className, String methodName, String parameters) {
+        return slice(findMethods(packageName, className, methodName, parameters));
+    }
+
+    public List<MethodIndex.Entry> findMethods(String packageName, String className, String methodName, String parameters) {
+        if (lazy) {
+            ensureIndexed(packageName, className);
+        }
+        return methodIndex.lookup(packageName, className, methodName, parameters);
+    }
+
+    public List<MethodIndex.Entry> findMethods(String packageName, String className, String methodName) {
+        if (lazy) {
+            ensureIndexed(packageName, className);
+        }
+        return methodIndex.lookup(packageName, className, methodName);
+    }
+
+    // fields, parameters and locals visible in the method, read from its current source without bindings
+    public List<VariableContext.Variable> getVariables(MethodIndex.Entry entry) {
+        String source = getSource(entry.file);
+        if (source == null) {
+            return Collections.emptyList();
+        }
+        long start = Metrics.start();
+        try {
+            ASTParser parser = ASTParser.newParser(AST.JLS8);
+            parser.setKind(ASTParser.K_COMPILATION_UNIT);
+            parser.setSource(source.toCharArray());
+            return VariableContext.collect((CompilationUnit) parser.createAST(null), entry.offset);
+        } finally {
+            Metrics.stop("methodfinder.variables", start);
+        }
+    }
+
+    private List<String> slice(List<MethodIndex.Entry> entries) {
+        Metrics.increment(entries.isEmpty() ? "methodfinder.lookups.notFound" : "methodfinder.lookups.found");
+        List<String> snippets = new ArrayList<>(entries.size());
+        for (MethodIndex.Entry entry : entries) {
+            String snippet = getMethodSource(entry);
+            if (snippet != null) {
+                snippets.add(snippet);
+            }
+        }
+        return snippets;
+    }
+
+    //returns null when the file cannot be read or has become shorter than the indexed range
+    public String getMethodSource(MethodIndex.Entry entry) {
+        String source = getSource(entry.file);
+        if (source == null || entry.offset + entry.length > source.length()) {
+            return null;
+        }
+        return source.substring(entry.offset, entry.offset + entry.length);
+    }
+
+    //returns null when the file cannot be read
+    private String getSource(File file) {
+        synchronized (sources) {
+            String source = sources.get(file);
+            if (source != null) {
+                Metrics.increment("methodfinder.sourceCache.hits");
+                return source;
+            }
+        }
+        Metrics.increment("methodfinder.sourceCache.misses");
+        try {
+            String source = readFileToString(file);
+            synchronized (sources) {
+                sources.put(file, source);
             }
+            return source;
+        } catch (IOException e) {
+            Metrics.increment("failures.methodfinder.read");
+            e.printStackTrace();
+            return null;
         }
-        return fileContents.toString();
+    }
+
+    private String readFileToString(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
     }
 
     public static void main(String[] args) {
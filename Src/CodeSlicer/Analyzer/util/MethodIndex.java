@@ -0,0 +1,276 @@
+package Analyzer.util;
+
+import org.eclipse.jdt.core.dom.*;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+// Maps (package, class, method name) to the source ranges of every matching declaration, overloads included.
+// Classes are keyed by their nested path ("Outer.Inner", "Outer.1" for the anonymous Outer$1) and, for nested
+// member types, also by their simple name.
+// Lists are replaced rather than mutated, so lookups can run while files are being added.
+public class MethodIndex {
+    private final Map<String, List<Entry>> entries = new ConcurrentHashMap<>();
+
+    public static class Entry {
+        public final File file;
+        public final String packageName;
+        public final String className;
+        public final String methodName;
+        public final int arity;
+        // erased simple parameter type names, e.g. "int,String,Entry[]"; see normalizeParameters
+        public final String parameterTypes;
+        public final int offset;
+        public final int length;
+
+        public Entry(File file, String packageName, String className, String methodName, int arity, String parameterTypes, int offset, int length) {
+            this.file = file;
+            this.packageName = packageName;
+            this.className = className;
+            this.methodName = methodName;
+            this.arity = arity;
+            this.parameterTypes = parameterTypes;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    public List<Entry> lookup(String packageName, String className, String methodName) {
+        return entries.getOrDefault(key(packageName, className.replace('$', '.'), methodName), Collections.emptyList());
+    }
+
+    public List<Entry> lookup(String packageName, String className, String methodName, int arity) {
+        List<Entry> matches = new ArrayList<>();
+        for (Entry entry : lookup(packageName, className, methodName)) {
+            if (entry.arity == arity) {
+                matches.add(entry);
+            }
+        }
+        return matches;
+    }
+
+    // overloads whose parameter types match a call-graph parameter list such as "int,java.util.Map$Entry[]";
+    // falls back to the overloads of the same arity when type names do not line up (type variables erase to
+    // Object in the call graph), and to every overload when the list is null
+    public List<Entry> lookup(String packageName, String className, String methodName, String parameters) {
+        List<Entry> candidates = lookup(packageName, className, methodName);
+        if (parameters == null || candidates.size() <= 1) {
+            return candidates;
+        }
+        String normalized = normalizeParameters(parameters);
+        List<Entry> matches = new ArrayList<>();
+        for (Entry entry : candidates) {
+            if (entry.parameterTypes.equals(normalized)) {
+                matches.add(entry);
+            }
+        }
+        if (matches.isEmpty()) {
+            int arity = parameters.isEmpty() ? 0 : normalized.split(",", -1).length;
+            for (Entry entry : candidates) {
+                if (entry.arity == arity) {
+                    matches.add(entry);
+                }
+            }
+        }
+        return matches.isEmpty() ? candidates : matches;
+    }
+
+    // comma-separated type names reduced to erased simple names: "java.util.List<String>" and "java.util.List"
+    // become "List", "java.util.Map$Entry" becomes "Entry", varargs become arrays
+    public static String normalizeParameters(String parameters) {
+        if (parameters.isEmpty()) {
+            return parameters;
+        }
+        StringBuilder normalized = new StringBuilder();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i <= parameters.length(); i++) {
+            char c = i < parameters.length() ? parameters.charAt(i) : ',';
+            if (c == '<') {
+                depth++;
+            } else if (c == '>') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                if (normalized.length() > 0) {
+                    normalized.append(',');
+                }
+                normalized.append(simpleTypeName(parameters.substring(start, i)));
+                start = i + 1;
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static String simpleTypeName(String type) {
+        StringBuilder erased = new StringBuilder();
+        int depth = 0;
+        for (int i = 0; i < type.length(); i++) {
+            char c = type.charAt(i);
+            if (c == '<') {
+                depth++;
+            } else if (c == '>') {
+                depth--;
+            } else if (depth == 0) {
+                erased.append(c);
+            }
+        }
+        String name = erased.toString().trim().replace("...", "[]");
+        // drop annotations and modifiers written in front of the type
+        int space = name.lastIndexOf(' ');
+        if (space >= 0) {
+            name = name.substring(space + 1);
+        }
+        int dims = name.indexOf('[');
+        String base = dims < 0 ? name : name.substring(0, dims);
+        String suffix = dims < 0 ? "" : name.substring(dims).replace(" ", "");
+        base = base.substring(Math.max(base.lastIndexOf('.'), base.lastIndexOf('$')) + 1);
+        return base + suffix;
+    }
+
+    // every method and constructor declared in the unit, including those of nested, local and anonymous types
+    public static List<Entry> collect(File file, CompilationUnit cu) {
+        String packageName = cu.getPackage() == null ? "" : cu.getPackage().getName().getFullyQualifiedName();
+        List<Entry> collected = new ArrayList<>();
+        forEachType(cu, (className, bodyDecls) -> {
+            for (Object bodyDecl : bodyDecls) {
+                if (bodyDecl instanceof MethodDeclaration) {
+                    MethodDeclaration method = (MethodDeclaration) bodyDecl;
+                    collected.add(new Entry(file, packageName, className, method.getName().getIdentifier(),
+                            method.parameters().size(), parameterTypes(method), method.getStartPosition(), method.getLength()));
+                }
+            }
+        });
+        return collected;
+    }
+
+    // nested paths of every type declared in the unit, e.g. "Foo", "Foo.Inner", "Foo.1" and secondary top-level types
+    public static List<String> collectTypes(CompilationUnit cu) {
+        List<String> types = new ArrayList<>();
+        forEachType(cu, (className, bodyDecls) -> types.add(className));
+        return types;
+    }
+
+    // Visits every type of the unit with its nested path and body declarations, outer types first. Member types
+    // are "Outer.Inner"; anonymous and local classes are numbered per enclosing class in source order, the way
+    // javac names them, so Outer$1 is "Outer.1" and Outer$1Local is "Outer.1Local" and binary names from the
+    // call graph find them once '$' is mapped to '.'.
+    private static void forEachType(CompilationUnit cu, BiConsumer<String, List<?>> visitor) {
+        for (Object type : cu.types()) {
+            AbstractTypeDeclaration declaration = (AbstractTypeDeclaration) type;
+            visitType(declaration.getName().getIdentifier(), declaration, declaration.bodyDeclarations(), visitor);
+        }
+    }
+
+    private static void visitType(String className, ASTNode type, List<?> bodyDecls, BiConsumer<String, List<?>> visitor) {
+        visitor.accept(className, bodyDecls);
+        // anonymous classes count under the empty name, local classes under their own
+        Map<String, Integer> localIndexes = new HashMap<>();
+        ASTVisitor localTypes = new ASTVisitor() {
+            @Override
+            public boolean visit(AnonymousClassDeclaration node) {
+                int index = localIndexes.merge("", 1, Integer::sum);
+                visitType(className + "." + index, node, node.bodyDeclarations(), visitor);
+                return false;
+            }
+
+            @Override
+            public boolean visit(TypeDeclarationStatement node) {
+                AbstractTypeDeclaration declaration = node.getDeclaration();
+                String name = declaration.getName().getIdentifier();
+                int index = localIndexes.merge(name, 1, Integer::sum);
+                visitType(className + "." + index + name, declaration, declaration.bodyDeclarations(), visitor);
+                return false;
+            }
+        };
+        if (type instanceof EnumDeclaration) {
+            for (Object constant : ((EnumDeclaration) type).enumConstants()) {
+                ((ASTNode) constant).accept(localTypes);
+            }
+        }
+        for (Object bodyDecl : bodyDecls) {
+            if (bodyDecl instanceof AbstractTypeDeclaration) {
+                AbstractTypeDeclaration member = (AbstractTypeDeclaration) bodyDecl;
+                visitType(className + "." + member.getName().getIdentifier(), member, member.bodyDeclarations(), visitor);
+            } else {
+                ((ASTNode) bodyDecl).accept(localTypes);
+            }
+        }
+    }
+
+    private static String parameterTypes(MethodDeclaration method) {
+        StringBuilder types = new StringBuilder();
+        for (Object parameter : method.parameters()) {
+            SingleVariableDeclaration declaration = (SingleVariableDeclaration) parameter;
+            StringBuilder type = new StringBuilder(declaration.getType().toString());
+            for (int i = 0; i < declaration.getExtraDimensions(); i++) {
+                type.append("[]");
+            }
+            if (declaration.isVarargs()) {
+                type.append("[]");
+            }
+            if (types.length() > 0) {
+                types.append(',');
+            }
+            types.append(simpleTypeName(type.toString()));
+        }
+        return types.toString();
+    }
+
+    public void addAll(List<Entry> collected) {
+        for (Entry entry : collected) {
+            add(key(entry.packageName, entry.className, entry.methodName), entry);
+            String simpleName = memberSimpleName(entry.className);
+            if (simpleName != null) {
+                add(key(entry.packageName, simpleName, entry.methodName), entry);
+            }
+        }
+    }
+
+    // drops exactly these entries (by identity), e.g. the ones collected from a file before it changed
+    public void removeAll(List<Entry> removed) {
+        for (Entry entry : removed) {
+            remove(key(entry.packageName, entry.className, entry.methodName), entry);
+            String simpleName = memberSimpleName(entry.className);
+            if (simpleName != null) {
+                remove(key(entry.packageName, simpleName, entry.methodName), entry);
+            }
+        }
+    }
+
+    // the simple name a nested member type is also keyed by; null for top-level types and for anonymous and local
+    // classes, whose "1" or "1Local" cannot name them outside their enclosing class
+    public static String memberSimpleName(String nestedPath) {
+        int lastDot = nestedPath.lastIndexOf('.');
+        if (lastDot < 0 || Character.isDigit(nestedPath.charAt(lastDot + 1))) {
+            return null;
+        }
+        return nestedPath.substring(lastDot + 1);
+    }
+
+    private void remove(String key, Entry entry) {
+        entries.computeIfPresent(key, (k, existing) -> {
+            List<Entry> kept = new ArrayList<>(existing.size());
+            for (Entry candidate : existing) {
+                if (candidate != entry) {
+                    kept.add(candidate);
+                }
+            }
+            return kept.isEmpty() ? null : kept;
+        });
+    }
+
+    private void add(String key, Entry entry) {
+        entries.merge(key, Collections.singletonList(entry), (existing, added) -> {
+            List<Entry> merged = new ArrayList<>(existing.size() + 1);
+            merged.addAll(existing);
+            merged.addAll(added);
+            return merged;
+        });
+    }
+
+    private static String key(String packageName, String className, String methodName) {
+        return packageName + '#' + className + '#' + methodName;
+    }
+}
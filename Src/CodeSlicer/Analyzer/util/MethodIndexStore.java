@@ -0,0 +1,148 @@
+package Analyzer.util;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+// On-disk form of the method index: one record per source file with its size, mtime and content hash, the
+// types it declares and the source ranges of its methods. Records of unchanged files are reused as is, so
+// only edited files have to be parsed again. VarRefine's class index keeps its records here too, without methods.
+public class MethodIndexStore {
+    private static final int MAGIC = 0x53434d49; // "SCMI"
+    private static final int VERSION = 3;
+
+    private final File storeFile;
+
+    public static class FileRecord {
+        public final String path;
+        public final long size;
+        public final long modified;
+        public final long hash;
+        public final String packageName;
+        // nested paths of every declared type, e.g. "Foo", "Foo.Inner", "Foo.1", plus secondary top-level types
+        public final List<String> types;
+        public final List<MethodIndex.Entry> methods;
+
+        public FileRecord(String path, long size, long modified, long hash, String packageName, List<String> types, List<MethodIndex.Entry> methods) {
+            this.path = path;
+            this.size = size;
+            this.modified = modified;
+            this.hash = hash;
+            this.packageName = packageName;
+            this.types = types;
+            this.methods = methods;
+        }
+
+        FileRecord withModified(long newModified) {
+            return new FileRecord(path, size, newModified, hash, packageName, types, methods);
+        }
+    }
+
+    public MethodIndexStore(File storeFile) {
+        this.storeFile = storeFile;
+    }
+
+    // records by relative path; empty when the store is missing, from another version or unreadable. root
+    // resolves the files of the method entries and may be null for records without methods
+    public Map<String, FileRecord> load(File root) {
+        Map<String, FileRecord> records = new HashMap<>();
+        if (!storeFile.isFile()) {
+            return records;
+        }
+        try (FileChannel channel = FileChannel.open(storeFile.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 12 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return records;
+            }
+            int fileCount = buffer.getInt();
+            for (int f = 0; f < fileCount; f++) {
+                String path = readString(buffer);
+                long size = buffer.getLong();
+                long modified = buffer.getLong();
+                long hash = buffer.getLong();
+                String packageName = readString(buffer);
+                int typeCount = buffer.getInt();
+                List<String> types = new ArrayList<>(typeCount);
+                for (int t = 0; t < typeCount; t++) {
+                    types.add(readString(buffer));
+                }
+                File file = new File(root, path);
+                int methodCount = buffer.getInt();
+                List<MethodIndex.Entry> methods = new ArrayList<>(methodCount);
+                for (int m = 0; m < methodCount; m++) {
+                    String className = types.get(buffer.getInt());
+                    String methodName = readString(buffer);
+                    int arity = buffer.getInt();
+                    String parameterTypes = readString(buffer);
+                    int offset = buffer.getInt();
+                    int length = buffer.getInt();
+                    methods.add(new MethodIndex.Entry(file, packageName, className, methodName, arity, parameterTypes, offset, length));
+                }
+                records.put(path, new FileRecord(path, size, modified, hash, packageName, types, methods));
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Ignoring unreadable method index " + storeFile + ": " + e);
+            records.clear();
+        }
+        return records;
+    }
+
+    public void save(Collection<FileRecord> records) throws IOException {
+        File temp = new File(storeFile.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(records.size());
+            for (FileRecord record : records) {
+                writeString(out, record.path);
+                out.writeLong(record.size);
+                out.writeLong(record.modified);
+                out.writeLong(record.hash);
+                writeString(out, record.packageName);
+                out.writeInt(record.types.size());
+                Map<String, Integer> typeIds = new HashMap<>();
+                for (String type : record.types) {
+                    typeIds.put(type, typeIds.size());
+                    writeString(out, type);
+                }
+                out.writeInt(record.methods.size());
+                for (MethodIndex.Entry method : record.methods) {
+                    out.writeInt(typeIds.get(method.className));
+                    writeString(out, method.methodName);
+                    out.writeInt(method.arity);
+                    writeString(out, method.parameterTypes);
+                    out.writeInt(method.offset);
+                    out.writeInt(method.length);
+                }
+            }
+        }
+        Files.move(temp.toPath(), storeFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // 64-bit FNV-1a over the file contents
+    public static long hash(byte[] bytes) {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : bytes) {
+            hash = (hash ^ (b & 0xff)) * 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
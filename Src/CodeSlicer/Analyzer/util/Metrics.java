@@ -0,0 +1,168 @@
+package Analyzer.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.Timespan;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Process-wide phase timers and counters for the slicing and extraction tools. Off unless the JVM is started
+// with -Dsclogger.metrics=<file> (or "-" for stderr); the flag is a static final, so with metrics off every
+// call below is a branch the JIT folds away. When on, a JSON summary is written at exit, every phase is also
+// a JFR event and counters are sampled into JFR once a second while a recording runs
+// (-XX:StartFlightRecording).
+//   long start = Metrics.start();
+//   try { ... } finally { Metrics.stop("callgraph.load", start); }
+//   Metrics.add("callgraph.edges", edgeCount);
+public final class Metrics {
+    public static final String PROPERTY = "sclogger.metrics";
+    public static final boolean ENABLED = System.getProperty(PROPERTY) != null;
+
+    private static final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private static final Map<String, PhaseStats> phases = new ConcurrentHashMap<>();
+
+    static {
+        if (ENABLED) {
+            FlightRecorder.addPeriodicEvent(CounterEvent.class, Metrics::emitCounters);
+            Runtime.getRuntime().addShutdownHook(new Thread(Metrics::writeSummary, "metrics-summary"));
+        }
+    }
+
+    private Metrics() {
+    }
+
+    public static void increment(String counter) {
+        if (ENABLED) {
+            adder(counter).increment();
+        }
+    }
+
+    public static void add(String counter, long delta) {
+        if (ENABLED) {
+            adder(counter).add(delta);
+        }
+    }
+
+    private static LongAdder adder(String counter) {
+        LongAdder adder = counters.get(counter);
+        return adder != null ? adder : counters.computeIfAbsent(counter, name -> new LongAdder());
+    }
+
+    // start of one run of a named phase, to be passed to stop; 0 when metrics are off
+    //   long start = Metrics.start();
+    //   try { ... } finally { Metrics.stop("callgraph.load", start); }
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0L;
+    }
+
+    // records the wall time since start under name; phases may nest and may run on several threads at once, in
+    // which case their totals add up
+    public static void stop(String name, long start) {
+        if (!ENABLED) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        PhaseEvent event = new PhaseEvent();
+        if (event.shouldCommit()) {
+            event.phase = name;
+            event.elapsed = nanos;
+            event.commit();
+        }
+        PhaseStats stats = phases.get(name);
+        if (stats == null) {
+            stats = phases.computeIfAbsent(name, key -> new PhaseStats());
+        }
+        stats.count.increment();
+        stats.nanos.add(nanos);
+        stats.maxNanos.accumulate(nanos);
+    }
+
+    private static final class PhaseStats {
+        final LongAdder count = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    }
+
+    // {"uptimeMs", "phases": {name: {"count", "totalMs", "maxMs"}}, "counters": {name: value}}, names sorted
+    public static Map<String, Object> summary() {
+        Map<String, Object> phaseSummary = new TreeMap<>();
+        phases.forEach((name, stats) -> {
+            Map<String, Object> entry = new TreeMap<>();
+            entry.put("count", stats.count.sum());
+            entry.put("totalMs", stats.nanos.sum() / 1e6);
+            entry.put("maxMs", stats.maxNanos.get() / 1e6);
+            phaseSummary.put(name, entry);
+        });
+        Map<String, Object> counterSummary = new TreeMap<>();
+        counters.forEach((name, adder) -> counterSummary.put(name, adder.sum()));
+
+        Map<String, Object> summary = new TreeMap<>();
+        summary.put("uptimeMs", ManagementFactory.getRuntimeMXBean().getUptime());
+        summary.put("phases", phaseSummary);
+        summary.put("counters", counterSummary);
+        return summary;
+    }
+
+    private static void writeSummary() {
+        String target = System.getProperty(PROPERTY);
+        try {
+            ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+            if ("-".equals(target) || target.isEmpty()) {
+                System.err.println(mapper.writeValueAsString(summary()));
+            } else {
+                mapper.writeValue(new File(target), summary());
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void emitCounters() {
+        counters.forEach((name, adder) -> {
+            CounterEvent event = new CounterEvent();
+            event.counter = name;
+            event.value = adder.sum();
+            event.commit();
+        });
+    }
+
+    @Name("sclogger.Phase")
+    @Label("Pipeline Phase")
+    @Category("SCLogger")
+    @Description("One run of a named slicing or extraction phase")
+    static class PhaseEvent extends Event {
+        @Label("Phase")
+        String phase;
+
+        @Label("Elapsed")
+        @Timespan(Timespan.NANOSECONDS)
+        long elapsed;
+    }
+
+    @Name("sclogger.Counter")
+    @Label("Pipeline Counter")
+    @Category("SCLogger")
+    @Description("Current value of a slicing or extraction counter")
+    @Period("1 s")
+    static class CounterEvent extends Event {
+        @Label("Counter")
+        String counter;
+
+        @Label("Value")
+        long value;
+    }
+}
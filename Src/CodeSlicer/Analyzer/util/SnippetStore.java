@@ -0,0 +1,415 @@
+package Analyzer.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Content-addressed, append-only store for method sources and variable inventories that batch output would
+// otherwise repeat for every target. Each distinct text is Deflate-compressed and written once; its id is the
+// hex form of its 64-bit FNV-1a hash, so the same text gets the same id in every run and every tool. A text
+// whose hash is already taken by a different text gets the next free id instead. Records carry the ids and
+// readers fetch texts by id with one positional read. Opening an existing store scans it once to rebuild the
+// id -> offset index and drops a partly written last entry. Only one writer may have a store open at a time:
+// it holds an exclusive lock on <store>.lock until it closes the store, and a second writer, in this process
+// or another, fails to open it. Read-only opens take no lock.
+//   header: MAGIC, VERSION; then per entry: id (long), text length (int), compressed length (int), bytes
+//   java Analyzer.util.SnippetStore <store> [id ...]
+public class SnippetStore implements Closeable {
+    private static final int MAGIC = 0x53435353; // "SCSS"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final int ENTRY_HEADER_BYTES = 16;
+    private static final int FLUSH_BYTES = 1 << 16;
+
+    // canonical paths of the stores this process has open for writing; closing a second channel on a locked
+    // file would release the lock, so other writers are turned away before they open the lock file
+    private static final Set<String> openForWriting = ConcurrentHashMap.newKeySet();
+
+    private final File storeFile;
+    private final boolean readOnly;
+    // the writer's lock file, null when read-only
+    private final FileChannel lockChannel;
+    private final String lockedPath;
+    private final FileChannel channel;
+    private final Map<Long, Long> offsets = new ConcurrentHashMap<>();
+    // id -> checkHash of its text, for the entries this process wrote or already compared a text with; a later
+    // put of the same id compares hashes instead of reading the entry back
+    private final Map<Long, Long> checked = new ConcurrentHashMap<>();
+    // appended entries not yet written to the channel; they start at `end`
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private long end;
+    private final AtomicLong added = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+    private final AtomicLong collisions = new AtomicLong();
+    private final AtomicLong textBytes = new AtomicLong();
+    private final AtomicLong storedBytes = new AtomicLong();
+
+    public SnippetStore(File storeFile, boolean readOnly) throws IOException {
+        this.storeFile = storeFile;
+        this.readOnly = readOnly;
+        if (readOnly) {
+            this.lockedPath = null;
+            this.lockChannel = null;
+            this.channel = FileChannel.open(storeFile.toPath(), StandardOpenOption.READ);
+        } else {
+            this.lockedPath = storeFile.getCanonicalPath();
+            this.lockChannel = lockForWriting();
+            try {
+                this.channel = FileChannel.open(storeFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+            } catch (IOException e) {
+                unlock();
+                throw e;
+            }
+        }
+        try {
+            scan();
+        } catch (IOException e) {
+            channel.close();
+            unlock();
+            throw e;
+        }
+    }
+
+    // the open lock file, whose lock is released when the channel is closed
+    private FileChannel lockForWriting() throws IOException {
+        if (!openForWriting.add(lockedPath)) {
+            throw new IOException(storeFile + " is already open for writing in this process");
+        }
+        FileChannel lockFile = null;
+        try {
+            lockFile = FileChannel.open(Paths.get(lockedPath + ".lock"), StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+            FileLock lock;
+            try {
+                lock = lockFile.tryLock();
+            } catch (OverlappingFileLockException e) {
+                lock = null;
+            }
+            if (lock == null) {
+                throw new IOException(storeFile + " is already open for writing by another process");
+            }
+            return lockFile;
+        } catch (IOException e) {
+            if (lockFile != null) {
+                lockFile.close();
+            }
+            openForWriting.remove(lockedPath);
+            throw e;
+        }
+    }
+
+    private void unlock() throws IOException {
+        if (lockChannel != null) {
+            try {
+                lockChannel.close();
+            } finally {
+                openForWriting.remove(lockedPath);
+            }
+        }
+    }
+
+    private void scan() throws IOException {
+        long size = channel.size();
+        if (size == 0 && !readOnly) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION);
+            header.flip();
+            channel.write(header, 0);
+            end = HEADER_BYTES;
+            return;
+        }
+        ByteBuffer header = read(0, HEADER_BYTES);
+        if (header == null || header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException(storeFile + " is not a snippet store of version " + VERSION);
+        }
+        long position = HEADER_BYTES;
+        while (position + ENTRY_HEADER_BYTES <= size) {
+            ByteBuffer entry = read(position, ENTRY_HEADER_BYTES);
+            long id = entry.getLong();
+            entry.getInt();
+            int compressedLength = entry.getInt();
+            if (compressedLength < 0 || position + ENTRY_HEADER_BYTES + compressedLength > size) {
+                break;
+            }
+            offsets.putIfAbsent(id, position);
+            position += ENTRY_HEADER_BYTES + compressedLength;
+        }
+        if (position < size) {
+            System.err.println("Dropping " + (size - position) + " bytes of an incomplete entry at the end of " + storeFile);
+            if (!readOnly) {
+                channel.truncate(position);
+            }
+        }
+        end = position;
+    }
+
+    // returns the id of text, writing text only when the store does not have it yet
+    public String put(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        long id = MethodIndexStore.hash(bytes);
+        long check = checkHash(bytes);
+        byte[] compressed = null;
+        while (true) {
+            Long offset = offsets.get(id);
+            if (offset != null) {
+                Long known = checked.get(id);
+                boolean same;
+                if (known != null) {
+                    same = known == check;
+                } else {
+                    same = holds(offset, bytes);
+                    if (same) {
+                        checked.put(id, check);
+                    }
+                }
+                if (same) {
+                    deduplicated.incrementAndGet();
+                    Metrics.increment("snippets.deduplicated");
+                    return toHex(id);
+                }
+                // another text has this hash
+                collisions.incrementAndGet();
+                Metrics.increment("snippets.collisions");
+                id++;
+                continue;
+            }
+            if (readOnly) {
+                throw new IllegalStateException(storeFile + " is open read-only");
+            }
+            if (compressed == null) {
+                compressed = deflate(bytes);
+            }
+            synchronized (this) {
+                if (offsets.containsKey(id)) {
+                    // added by another thread meanwhile, the same text or not
+                    continue;
+                }
+                long newOffset = end + pending.size();
+                ByteBuffer header = ByteBuffer.allocate(ENTRY_HEADER_BYTES).putLong(id).putInt(bytes.length).putInt(compressed.length);
+                pending.write(header.array(), 0, ENTRY_HEADER_BYTES);
+                pending.write(compressed, 0, compressed.length);
+                offsets.put(id, newOffset);
+                checked.put(id, check);
+                if (pending.size() >= FLUSH_BYTES) {
+                    flushPending();
+                }
+            }
+            break;
+        }
+        added.incrementAndGet();
+        textBytes.addAndGet(bytes.length);
+        storedBytes.addAndGet(ENTRY_HEADER_BYTES + compressed.length);
+        Metrics.increment("snippets.added");
+        Metrics.add("snippets.storedBytes", ENTRY_HEADER_BYTES + compressed.length);
+        return toHex(id);
+    }
+
+    // a second 64-bit hash, unrelated to FNV-1a, so a text matching an id on both hashes is taken as the same
+    private static long checkHash(byte[] bytes) {
+        long hash = 0x9E3779B97F4A7C15L ^ bytes.length;
+        for (byte b : bytes) {
+            hash = Long.rotateLeft(hash ^ (b & 0xff), 23) * 0xC2B2AE3D27D4EB4FL;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        return hash ^ (hash >>> 33);
+    }
+
+    // whether the entry at offset holds exactly these bytes; the stored length rules out most other texts
+    // before anything is inflated
+    private boolean holds(long offset, byte[] bytes) {
+        try {
+            return Arrays.equals(text(offset, bytes.length), bytes);
+        } catch (IOException e) {
+            Metrics.increment("failures.snippets.read");
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //returns null when the store has no text with this id, or id is not one
+    public String get(String id) throws IOException {
+        Long offset = isId(id) ? offsets.get(fromHex(id)) : null;
+        return offset == null ? null : new String(text(offset, -1), StandardCharsets.UTF_8);
+    }
+
+    // the text bytes of the entry at offset; null without inflating when expectedLength is not -1 and differs
+    private byte[] text(long offset, int expectedLength) throws IOException {
+        synchronized (this) {
+            if (offset >= end) {
+                flushPending();
+            }
+        }
+        ByteBuffer header = read(offset, ENTRY_HEADER_BYTES);
+        long id = header.getLong();
+        int length = header.getInt();
+        int compressedLength = header.getInt();
+        if (expectedLength >= 0 && length != expectedLength) {
+            return null;
+        }
+        ByteBuffer compressed = read(offset + ENTRY_HEADER_BYTES, compressedLength);
+        if (compressed == null) {
+            throw new EOFException("entry " + toHex(id) + " runs past the end of " + storeFile);
+        }
+        return inflate(compressed.array(), length);
+    }
+
+    public boolean contains(String id) {
+        return isId(id) && offsets.containsKey(fromHex(id));
+    }
+
+    public int size() {
+        return offsets.size();
+    }
+
+    // caller holds the lock
+    private void flushPending() {
+        if (pending.size() == 0) {
+            return;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(pending.toByteArray());
+            while (buffer.hasRemaining()) {
+                end += channel.write(buffer, end);
+            }
+            pending.reset();
+        } catch (IOException e) {
+            Metrics.increment("failures.snippets.write");
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //returns null when fewer than length bytes are left at position
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                return null;
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static byte[] deflate(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, bytes.length / 2));
+            byte[] chunk = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private byte[] inflate(byte[] compressed, int length) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] bytes = new byte[length];
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int n = inflater.inflate(bytes, read, length - read);
+                if (n == 0 && inflater.needsInput()) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != length) {
+                throw new IOException("corrupt entry in " + storeFile);
+            }
+            return bytes;
+        } catch (DataFormatException e) {
+            throw new IOException("corrupt entry in " + storeFile, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    static String toHex(long id) {
+        String hex = Long.toHexString(id);
+        return "0000000000000000".substring(hex.length()) + hex;
+    }
+
+    static long fromHex(String id) {
+        return Long.parseUnsignedLong(id, 16);
+    }
+
+    private static boolean isId(String id) {
+        if (id.length() != 16) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            if (Character.digit(id.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (!readOnly) {
+                flushPending();
+            }
+        } finally {
+            try {
+                channel.close();
+            } finally {
+                unlock();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        long puts = added.get() + deduplicated.get();
+        return String.format("Snippet store %s: %d entries, %d added this run, %d of %d texts deduplicated, %d hash collisions, %d KB text stored as %d KB",
+                storeFile, size(), added.get(), deduplicated.get(), puts, collisions.get(), textBytes.get() >> 10, storedBytes.get() >> 10);
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("usage: SnippetStore <store> [id ...]");
+            System.exit(1);
+        }
+        try (SnippetStore store = new SnippetStore(new File(args[0]), true)) {
+            if (args.length == 1) {
+                System.out.println(store.size() + " entries, " + store.channel.size() + " bytes");
+                return;
+            }
+            for (int i = 1; i < args.length; i++) {
+                String text = store.get(args[i]);
+                if (text == null) {
+                    System.err.println("No entry " + args[i]);
+                } else {
+                    System.out.println(text);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package Analyzer.util;
+
+import java.io.File;
+import java.util.*;
+
+// Cheap index of a source tree built from file paths only: .java files by simple file name and by directory.
+// It maps a (package, class) pair to the few files that can declare it without parsing anything.
+public class SourcePathIndex {
+    private final Map<String, List<File>> filesByName = new HashMap<>();
+    private final Map<String, List<File>> filesByDirectory = new HashMap<>();
+    private int fileCount;
+
+    public SourcePathIndex(String projectSrcDir) {
+        listFiles(new File(projectSrcDir));
+    }
+
+    private void listFiles(File root) {
+        File[] files = root.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isDirectory()) {
+                listFiles(file);
+            } else if (file.getName().endsWith(".java")) {
+                String name = file.getName();
+                filesByName.computeIfAbsent(name.substring(0, name.length() - 5), k -> new ArrayList<>()).add(file);
+                filesByDirectory.computeIfAbsent(file.getParentFile().getPath(), k -> new ArrayList<>()).add(file);
+                fileCount++;
+            }
+        }
+    }
+
+    public int getFileCount() {
+        return fileCount;
+    }
+
+    // files named after the top-level class in a directory matching the package, e.g. org/ex/Foo.java for
+    // (org.ex, Foo$Inner); falls back to every file of the package directories for secondary top-level types
+    public List<File> candidateFiles(String packageName, String className) {
+        String topLevel = topLevelName(className);
+        String packagePath = File.separator + packageName.replace('.', File.separatorChar);
+        List<File> candidates = new ArrayList<>();
+        for (File file : filesByName.getOrDefault(topLevel, Collections.emptyList())) {
+            if (inPackageDirectory(file.getParentFile().getPath(), packagePath)) {
+                candidates.add(file);
+            }
+        }
+        if (!candidates.isEmpty()) {
+            return candidates;
+        }
+        for (Map.Entry<String, List<File>> entry : filesByDirectory.entrySet()) {
+            if (inPackageDirectory(entry.getKey(), packagePath)) {
+                candidates.addAll(entry.getValue());
+            }
+        }
+        return candidates;
+    }
+
+    private static boolean inPackageDirectory(String directory, String packagePath) {
+        return directory.endsWith(packagePath) || packagePath.equals(File.separator);
+    }
+
+    private static String topLevelName(String className) {
+        int end = className.length();
+        for (int i = 0; i < className.length(); i++) {
+            char c = className.charAt(i);
+            if (c == '$' || c == '.') {
+                end = i;
+                break;
+            }
+        }
+        return className.substring(0, end);
+    }
+}
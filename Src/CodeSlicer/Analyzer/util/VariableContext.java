@@ -0,0 +1,116 @@
+package Analyzer.util;
+
+import org.eclipse.jdt.core.dom.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Variables visible inside one method, read off the syntax tree alone: fields declared by the enclosing type,
+// parameters and locals, with their types as written in the source. Without a binding environment, inherited
+// fields and inferred types (var, lambda parameters) are not resolved; AvaVarList gives the resolved view.
+public class VariableContext {
+    public static final String CLASS = "class";
+    public static final String PARAMETER = "parameter";
+    public static final String LOCAL = "local";
+
+    public static class Variable {
+        public final String scope;
+        public final String name;
+        public final String type;
+
+        public Variable(String scope, String name, String type) {
+            this.scope = scope;
+            this.name = name;
+            this.type = type;
+        }
+    }
+
+    // the method declared at offset in cu; empty when there is none
+    public static List<Variable> collect(CompilationUnit cu, int offset) {
+        List<Variable> variables = new ArrayList<>();
+        MethodDeclaration method = find(cu, offset);
+        if (method == null) {
+            return variables;
+        }
+
+        if (method.getParent() instanceof AbstractTypeDeclaration) {
+            for (Object bodyDecl : ((AbstractTypeDeclaration) method.getParent()).bodyDeclarations()) {
+                if (bodyDecl instanceof FieldDeclaration) {
+                    FieldDeclaration field = (FieldDeclaration) bodyDecl;
+                    for (Object fragment : field.fragments()) {
+                        VariableDeclarationFragment vdf = (VariableDeclarationFragment) fragment;
+                        variables.add(new Variable(CLASS, vdf.getName().getIdentifier(), typeName(field.getType(), vdf.getExtraDimensions())));
+                    }
+                }
+            }
+        }
+
+        for (Object parameter : method.parameters()) {
+            SingleVariableDeclaration svd = (SingleVariableDeclaration) parameter;
+            variables.add(new Variable(PARAMETER, svd.getName().getIdentifier(), typeName(svd)));
+        }
+
+        if (method.getBody() != null) {
+            method.getBody().accept(new ASTVisitor() {
+                @Override
+                public boolean visit(VariableDeclarationFragment node) {
+                    variables.add(new Variable(LOCAL, node.getName().getIdentifier(), typeName(declaredType(node), node.getExtraDimensions())));
+                    return true;
+                }
+
+                @Override
+                public boolean visit(SingleVariableDeclaration node) {
+                    variables.add(new Variable(LOCAL, node.getName().getIdentifier(), typeName(node)));
+                    return true;
+                }
+            });
+        }
+        return variables;
+    }
+
+    private static MethodDeclaration find(CompilationUnit cu, int offset) {
+        MethodDeclaration[] found = new MethodDeclaration[1];
+        cu.accept(new ASTVisitor() {
+            @Override
+            public boolean visit(MethodDeclaration node) {
+                if (node.getStartPosition() == offset) {
+                    found[0] = node;
+                }
+                return found[0] == null && node.getStartPosition() <= offset
+                        && offset < node.getStartPosition() + node.getLength();
+            }
+        });
+        return found[0];
+    }
+
+    // null for lambda parameters without a declared type
+    private static Type declaredType(VariableDeclarationFragment fragment) {
+        ASTNode parent = fragment.getParent();
+        if (parent instanceof VariableDeclarationStatement) {
+            return ((VariableDeclarationStatement) parent).getType();
+        }
+        if (parent instanceof VariableDeclarationExpression) {
+            return ((VariableDeclarationExpression) parent).getType();
+        }
+        if (parent instanceof FieldDeclaration) {
+            return ((FieldDeclaration) parent).getType();
+        }
+        return null;
+    }
+
+    private static String typeName(SingleVariableDeclaration declaration) {
+        String type = typeName(declaration.getType(), declaration.getExtraDimensions());
+        return declaration.isVarargs() ? type + "[]" : type;
+    }
+
+    private static String typeName(Type type, int extraDimensions) {
+        if (type == null) {
+            return null;
+        }
+        StringBuilder name = new StringBuilder(type.toString());
+        for (int i = 0; i < extraDimensions; i++) {
+            name.append("[]");
+        }
+        return name.toString();
+    }
+}
@@ -0,0 +1,154 @@
+package Analyzer.slicer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Applying a CallGraphDiff has to give the same graph as loading the changed file from scratch, for
+// CodeSlicer.Graph and for CompactGraph including its reverse index. The changed graph drops random edges and
+// every edge of a few deleted methods (as -N: lines) and adds edges, some of them to methods that did not
+// exist before. Bench's IncrementalUpdateCheck times the same comparison on large graphs.
+class IncrementalUpdateTest {
+    private static final int METHODS = 400;
+    private static final int EDGES = 2000;
+    private static final int CHANGES = 200;
+    private static final long SEED = 42L;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void graphDiffMatchesReload() throws IOException {
+        Path oldFile = writeGraph();
+        Path newFile = dir.resolve("callgraph-changed.txt");
+        Path diffFile = dir.resolve("callgraph.diff");
+        writeDiff(oldFile, newFile, diffFile, writeChangedGraph(oldFile, newFile));
+
+        CodeSlicer.Graph graph = CodeSlicer.createGraphFromOutput(oldFile.toString());
+        graph.applyDiff(CallGraphDiff.load(diffFile.toString()));
+
+        assertEquals(CodeSlicer.createGraphFromOutput(newFile.toString()).getEntries(), graph.getEntries());
+    }
+
+    @Test
+    void compactGraphDiffMatchesReload() throws IOException {
+        Path oldFile = writeGraph();
+        Path newFile = dir.resolve("callgraph-changed.txt");
+        Path diffFile = dir.resolve("callgraph.diff");
+        writeDiff(oldFile, newFile, diffFile, writeChangedGraph(oldFile, newFile));
+
+        CallGraphLoader loader = new CallGraphLoader(2);
+        CompactGraph updated = loader.load(oldFile.toString()).applyDiff(CallGraphDiff.load(diffFile.toString()));
+        CompactGraph reloaded = loader.load(newFile.toString());
+
+        assertEquals(reloaded.methodCount(), updated.methodCount());
+        assertEquals(reloaded.edgeCount(), updated.edgeCount());
+        // ids may differ between the two, so every method is compared by its callees and callers
+        for (int id = 0; id < reloaded.methodCount(); id++) {
+            CodeSlicer.Method method = reloaded.methodOf(id);
+            int updatedId = updated.idOf(method);
+            assertTrue(updatedId >= 0, "missing after the diff: " + method);
+            assertEquals(reloaded.toMethods(reloaded.getAdjMethods(id)), updated.toMethods(updated.getAdjMethods(updatedId)),
+                    "callees of " + method);
+            assertEquals(reloaded.toMethods(reloaded.getCallers(id)), updated.toMethods(updated.getCallers(updatedId)),
+                    "callers of " + method);
+        }
+    }
+
+    private Path writeGraph() throws IOException {
+        Random random = new Random(SEED);
+        Set<String> lines = new HashSet<>();
+        while (lines.size() < EDGES) {
+            lines.add(edge(random.nextInt(METHODS), random.nextInt(METHODS)));
+        }
+        Path file = dir.resolve("callgraph.txt");
+        Files.write(file, lines, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    // drops CHANGES random lines and every line of a few deleted methods, then appends up to CHANGES lines, a
+    // tenth of them calling new methods; returns the deleted methods' signatures
+    private static Set<String> writeChangedGraph(Path oldFile, Path newFile) throws IOException {
+        List<String> lines = Files.readAllLines(oldFile, StandardCharsets.UTF_8);
+        Random random = new Random(SEED + 1);
+        Set<String> deletedMethods = new HashSet<>();
+        while (deletedMethods.size() < CHANGES / 50) {
+            deletedMethods.add(signature(random.nextInt(METHODS)));
+        }
+        Set<Integer> droppedLines = new HashSet<>();
+        while (droppedLines.size() < CHANGES) {
+            droppedLines.add(random.nextInt(lines.size()));
+        }
+        Set<String> written = new HashSet<>();
+        try (BufferedWriter out = Files.newBufferedWriter(newFile, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i);
+                if (!droppedLines.contains(i) && !deletedMethods.contains(caller(line)) && !deletedMethods.contains(callee(line))) {
+                    written.add(line);
+                }
+            }
+            // an added edge of a deleted method could be one of its old edges, which the edge diff leaves out
+            for (int i = 0; i < CHANGES; i++) {
+                int caller = random.nextInt(METHODS);
+                int callee = i % 10 == 0 ? METHODS + random.nextInt(METHODS) : random.nextInt(METHODS);
+                if (!deletedMethods.contains(signature(caller)) && !deletedMethods.contains(signature(callee))) {
+                    written.add(edge(caller, callee));
+                }
+            }
+            // call-graph files are taken as sets of lines, so none may repeat
+            for (String line : written) {
+                out.write(line);
+                out.write('\n');
+            }
+        }
+        return deletedMethods;
+    }
+
+    // the edge diff of the two files, with the removals of deleted methods' edges replaced by -N: lines
+    private static void writeDiff(Path oldFile, Path newFile, Path diffFile, Set<String> deletedMethods) throws IOException {
+        StringWriter edges = new StringWriter();
+        CallGraphDiff.write(oldFile.toString(), newFile.toString(), edges);
+        List<String> lines = new ArrayList<>();
+        for (String method : deletedMethods) {
+            lines.add(CallGraphDiff.REMOVED_METHOD + method);
+        }
+        for (String line : edges.toString().split("\n")) {
+            if (line.startsWith("-")
+                    && (deletedMethods.contains(caller(line.substring(1))) || deletedMethods.contains(callee(line.substring(1))))) {
+                continue;
+            }
+            lines.add(line);
+        }
+        Files.write(diffFile, lines, StandardCharsets.UTF_8);
+    }
+
+    private static String edge(int caller, int callee) {
+        return "M:" + signature(caller) + " (M)" + signature(callee);
+    }
+
+    private static String signature(int methodId) {
+        return "org.gen.p" + methodId / 100 + ".C" + methodId / 10 + ":m" + methodId % 10 + "(int,java.lang.String)";
+    }
+
+    private static String caller(String line) {
+        return line.substring(2, line.indexOf(' '));
+    }
+
+    private static String callee(String line) {
+        return line.substring(line.indexOf(' ') + 4);
+    }
+}
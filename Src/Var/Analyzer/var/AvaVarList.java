@@ -0,0 +1,265 @@
+package Analyzer.var;
+
+import Analyzer.util.Metrics;
+import Analyzer.util.SnippetStore;
+import org.apache.commons.cli.*;
+import org.eclipse.jdt.core.*;
+import org.eclipse.jdt.core.dom.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class AvaVarList {
+    public static void main(String[] args) throws IOException, ParseException {
+        Options options = new Options();
+
+        Option input = new Option("i", "input", true, "input java file path");
+        options.addOption(input);
+
+        Option output = new Option("o", "output", true, "output file path");
+        output.setRequired(true);
+        options.addOption(output);
+
+        Option method = new Option("m", "method", true, "method name");
+        options.addOption(method);
+
+        Option batch = new Option("b", "batch", true, "manifest of <java file> <method name> lines, resolved in one pass");
+        options.addOption(batch);
+
+        Option srcPaths_temp = new Option("s", "srcpaths", true, "src paths file");
+        srcPaths_temp.setRequired(true);
+        options.addOption(srcPaths_temp);
+
+        Option classpathEntries_temp = new Option("c", "classpathentries", true, "classpath entries file");
+        classpathEntries_temp.setRequired(true);
+        options.addOption(classpathEntries_temp);
+
+        Option format = new Option("f", "format", true, "output format: text (default) or jsonl");
+        options.addOption(format);
+
+        Option snippetStore = new Option("z", "snippets", true, "write each method's variables once to this snippet store and output their ids (jsonl)");
+        options.addOption(snippetStore);
+
+        BasicParser basicParser = new BasicParser();
+        HelpFormatter formatter = new HelpFormatter();
+        CommandLine cmd;
+
+        try {
+            cmd = basicParser.parse(options, args);
+        } catch (ParseException e) {
+            System.out.println(e.getMessage());
+            formatter.printHelp("utility-name", options);
+
+            System.exit(1);
+            return;
+        }
+
+        if (!cmd.hasOption("batch") && !(cmd.hasOption("input") && cmd.hasOption("method"))) {
+            System.out.println("Missing required options: i and m, or b");
+            formatter.printHelp("utility-name", options);
+
+            System.exit(1);
+            return;
+        }
+
+        if (cmd.hasOption("snippets") && !"jsonl".equals(cmd.getOptionValue("format"))) {
+            System.out.println("Option z needs -f jsonl");
+            formatter.printHelp("utility-name", options);
+
+            System.exit(1);
+            return;
+        }
+
+        String inputFilePath = cmd.getOptionValue("input");
+        String outputFilePath = cmd.getOptionValue("output");
+        String methodName = cmd.getOptionValue("method");
+        String srcPathsFilePath = cmd.getOptionValue("srcpaths");
+        String classpathEntriesFilePath = cmd.getOptionValue("classpathentries");
+        String outputFormat = cmd.getOptionValue("format", "text");
+
+        ASTParser astParser = ASTParser.newParser(AST.JLS14);
+        astParser.setResolveBindings(true);
+        astParser.setBindingsRecovery(true);
+        astParser.setKind(ASTParser.K_COMPILATION_UNIT);
+
+        astParser.setCompilerOptions(JavaCore.getOptions());
+
+        List<String> srcPaths = Files.readAllLines(Paths.get(srcPathsFilePath));
+        List<String> classpathEntries = Files.readAllLines(Paths.get(classpathEntriesFilePath));
+
+        String[] encodings = new String[classpathEntries.size()];
+        Arrays.fill(encodings, "");
+        astParser.setEnvironment(srcPaths.toArray(new String[0]), classpathEntries.toArray(new String[0]), encodings, true);
+
+        InheritedFieldCache inheritedFields = new InheritedFieldCache();
+        try (SnippetStore snippets = cmd.hasOption("snippets") ? new SnippetStore(new File(cmd.getOptionValue("snippets")), false) : null;
+             VarOutput out = new VarOutput(outputFilePath, outputFormat, snippets)) {
+            if (cmd.hasOption("batch")) {
+                Map<String, Set<String>> methodsByFile = readManifest(cmd.getOptionValue("batch"));
+                // one createASTs call shares a single name environment, so jars and source roots are loaded once;
+                // parsing and binding resolution are interleaved inside it, extraction is timed on its own
+                long batchStart = Metrics.start();
+                try {
+                    astParser.createASTs(methodsByFile.keySet().toArray(new String[0]), null, new String[0], new FileASTRequestor() {
+                        @Override
+                        public void acceptAST(String sourceFilePath, CompilationUnit cu) {
+                            Metrics.increment("avavarlist.files");
+                            long extractStart = Metrics.start();
+                            try {
+                                out.beginFile(sourceFilePath);
+                                collectVariables(cu, methodsByFile.get(sourceFilePath), out, inheritedFields);
+                            } finally {
+                                Metrics.stop("avavarlist.extract", extractStart);
+                            }
+                        }
+                    }, null);
+                } finally {
+                    Metrics.stop("avavarlist.batch", batchStart);
+                }
+                System.err.println(inheritedFields);
+                return;
+            }
+
+            String fileContent = new String(Files.readAllBytes(Paths.get(inputFilePath)));
+            astParser.setUnitName(inputFilePath);
+            astParser.setSource(fileContent.toCharArray());
+
+            CompilationUnit cu;
+            long parseStart = Metrics.start();
+            try {
+                cu = (CompilationUnit) astParser.createAST(null);
+            } finally {
+                Metrics.stop("avavarlist.parse", parseStart);
+            }
+            Metrics.increment("avavarlist.files");
+            long extractStart = Metrics.start();
+            try {
+                collectVariables(cu, Collections.singleton(methodName), out, inheritedFields);
+            } finally {
+                Metrics.stop("avavarlist.extract", extractStart);
+            }
+        }
+    }
+
+    // file -> method names, in manifest order; blank lines and lines starting with # are skipped
+    static Map<String, Set<String>> readManifest(String manifestFilePath) throws IOException {
+        Map<String, Set<String>> methodsByFile = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(Paths.get(manifestFilePath))) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int separator = line.lastIndexOf('\t') >= 0 ? line.lastIndexOf('\t') : line.lastIndexOf(' ');
+            if (separator < 0) {
+                System.err.println("Skipping manifest line without a method name: " + line);
+                continue;
+            }
+            methodsByFile.computeIfAbsent(line.substring(0, separator).trim(), k -> new LinkedHashSet<>())
+                    .add(line.substring(separator + 1).trim());
+        }
+        return methodsByFile;
+    }
+
+    // receives the variables of one method declaration; VarOutput writes them, ContextExtractor keeps them
+    interface VariableSink {
+        void variable(String scope, String name, String type);
+    }
+
+    static void collectVariables(CompilationUnit cu, Set<String> methodNames, VarOutput out, InheritedFieldCache inheritedFields) {
+        cu.accept(new ASTVisitor() {
+            @Override
+            public boolean visit(MethodDeclaration node) {
+                if (methodNames.contains(node.getName().getIdentifier())) {
+                    out.beginMethod(node.getName().toString());
+                    try {
+                        collectVariables(node, out, inheritedFields);
+                    } catch (RuntimeException e) {
+                        // a broken source; keep the variables found so far and go on with the next method
+                        Metrics.increment("failures.avavarlist.variables");
+                    }
+                }
+                return super.visit(node);
+            }
+        });
+    }
+
+    // class-level, inherited, parameter and local variables of one method, in that order; bindings must be resolved.
+    // Methods of anonymous classes get their class-level and inherited variables too; methods with any other
+    // parent (only seen in broken sources) get parameters and locals only
+    static void collectVariables(MethodDeclaration node, VariableSink out, InheritedFieldCache inheritedFields) {
+        List bodyDeclarations;
+        ITypeBinding typeBinding;
+        if (node.getParent() instanceof AbstractTypeDeclaration) {
+            AbstractTypeDeclaration typeDecl = (AbstractTypeDeclaration) node.getParent();
+            bodyDeclarations = typeDecl.bodyDeclarations();
+            typeBinding = typeDecl.resolveBinding();
+        } else if (node.getParent() instanceof AnonymousClassDeclaration) {
+            AnonymousClassDeclaration classDecl = (AnonymousClassDeclaration) node.getParent();
+            bodyDeclarations = classDecl.bodyDeclarations();
+            typeBinding = classDecl.resolveBinding();
+        } else {
+            bodyDeclarations = Collections.emptyList();
+            typeBinding = null;
+        }
+
+        for (Object bodyDecl : bodyDeclarations) {
+            if (bodyDecl instanceof FieldDeclaration) {
+                VariableDeclarationFragment vdf = (VariableDeclarationFragment) ((FieldDeclaration) bodyDecl).fragments().get(0);
+                out.variable(VarOutput.CLASS, vdf.getName().toString(), typeName(vdf));
+            }
+        }
+
+        if (typeBinding != null) {
+            for (InheritedFieldCache.Field var : inheritedFields.inheritedFields(typeBinding)) {
+                out.variable(VarOutput.INHERITED, var.name, var.type);
+            }
+        }
+
+        List parameters = node.parameters();
+        for (Object parameter : parameters) {
+            if (parameter instanceof SingleVariableDeclaration) {
+                SingleVariableDeclaration singleVariableDeclaration = (SingleVariableDeclaration) parameter;
+                out.variable(VarOutput.PARAMETER, singleVariableDeclaration.getName().toString(), singleVariableDeclaration.getType().toString());
+            }
+        }
+
+        node.accept(new ASTVisitor() {
+            @Override
+            public boolean visit(VariableDeclarationFragment node) {
+                SimpleName name = node.getName();
+                out.variable(VarOutput.LOCAL, name.toString(), typeName(node));
+                return false;
+            }
+        });
+    }
+
+    // the resolved type's name; without a binding the unresolved type as written, or "var" when it is inferred
+    private static String typeName(VariableDeclarationFragment fragment) {
+        IVariableBinding binding = fragment.resolveBinding();
+        if (binding != null && binding.getType() != null) {
+            return binding.getType().getName();
+        }
+        Metrics.increment("avavarlist.unresolved");
+        ASTNode parent = fragment.getParent();
+        if (parent instanceof VariableDeclarationStatement) {
+            return ((VariableDeclarationStatement) parent).getType().toString();
+        }
+        if (parent instanceof VariableDeclarationExpression) {
+            return ((VariableDeclarationExpression) parent).getType().toString();
+        }
+        if (parent instanceof FieldDeclaration) {
+            return ((FieldDeclaration) parent).getType().toString();
+        }
+        return "var";
+    }
+}
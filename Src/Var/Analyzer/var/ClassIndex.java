@@ -0,0 +1,139 @@
+package Analyzer.var;
+
+import Analyzer.util.MethodIndex;
+import Analyzer.util.MethodIndexStore;
+import org.eclipse.jdt.core.dom.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+// Maps class names to the source files declaring them: fully-qualified nested paths ("org.ex.Foo.Inner"), binary
+// names ("org.ex.Foo$Inner", "org.ex.Foo$1") and simple names, secondary top-level types included. Built by one
+// scan over the source roots; with a store file, files whose size and mtime (or content hash) are unchanged are
+// not parsed again. Records are kept in the method index format, without methods.
+class ClassIndex {
+    private final String[] srcPaths;
+    private final MethodIndexStore store;
+    private final Map<String, String> byQualifiedName = new HashMap<>();
+    private final Map<String, List<String>> bySimpleName = new HashMap<>();
+    private int parsedFiles;
+    private int reusedFiles;
+
+    ClassIndex(String[] srcPaths, File storeFile) {
+        this.srcPaths = srcPaths;
+        this.store = storeFile == null ? null : new MethodIndexStore(storeFile);
+    }
+
+    void build() throws IOException {
+        // records are keyed by the path they were stored under, which here is the file's own path
+        Map<String, MethodIndexStore.FileRecord> stored = store == null ? new HashMap<>() : store.load(null);
+        List<MethodIndexStore.FileRecord> records = new ArrayList<>();
+        ASTParser parser = ASTParser.newParser(AST.JLS14);
+        boolean changed = false;
+        for (String srcPath : srcPaths) {
+            File root = new File(srcPath);
+            if (!root.isDirectory()) {
+                continue;
+            }
+            List<File> files = new ArrayList<>();
+            listFiles(root, files);
+            for (File file : files) {
+                MethodIndexStore.FileRecord record = stored.remove(file.getPath());
+                if (record != null && record.size == file.length() && record.modified == file.lastModified()) {
+                    reusedFiles++;
+                } else {
+                    MethodIndexStore.FileRecord parsed = parse(parser, file, record);
+                    if (parsed == null) {
+                        continue;
+                    }
+                    changed = true;
+                    record = parsed;
+                }
+                records.add(record);
+                add(record);
+            }
+        }
+        // files that disappeared since the last run
+        changed |= !stored.isEmpty();
+        if (store != null && changed) {
+            store.save(records);
+        }
+    }
+
+    // accepts a fully-qualified or binary name, or a simple name, which resolves to the first file declaring it
+    String lookup(String className) {
+        if (className.indexOf('.') >= 0 || className.indexOf('$') >= 0) {
+            return byQualifiedName.get(className.replace('$', '.'));
+        }
+        List<String> files = bySimpleName.get(className);
+        return files == null ? null : files.get(0);
+    }
+
+    List<String> lookupSimpleName(String simpleName) {
+        return bySimpleName.getOrDefault(simpleName, Collections.emptyList());
+    }
+
+    int size() {
+        return byQualifiedName.size();
+    }
+
+    int getParsedFileCount() {
+        return parsedFiles;
+    }
+
+    int getReusedFileCount() {
+        return reusedFiles;
+    }
+
+    private void add(MethodIndexStore.FileRecord record) {
+        for (String type : record.types) {
+            String qualifiedName = record.packageName.isEmpty() ? type : record.packageName + "." + type;
+            byQualifiedName.putIfAbsent(qualifiedName, record.path);
+            String simpleName = type.indexOf('.') < 0 ? type : MethodIndex.memberSimpleName(type);
+            if (simpleName != null) {
+                bySimpleName.computeIfAbsent(simpleName, k -> new ArrayList<>(1)).add(record.path);
+            }
+        }
+    }
+
+    // a file whose content hash still matches its stored record is not parsed again; returns null when the file cannot be read
+    private MethodIndexStore.FileRecord parse(ASTParser parser, File file, MethodIndexStore.FileRecord stored) {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file.toPath());
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+        long hash = MethodIndexStore.hash(bytes);
+        if (stored != null && stored.hash == hash) {
+            reusedFiles++;
+            return new MethodIndexStore.FileRecord(stored.path, bytes.length, file.lastModified(), hash, stored.packageName,
+                    stored.types, Collections.emptyList());
+        }
+        parsedFiles++;
+        parser.setKind(ASTParser.K_COMPILATION_UNIT);
+        parser.setSource(new String(bytes, StandardCharsets.UTF_8).toCharArray());
+        CompilationUnit cu = (CompilationUnit) parser.createAST(null);
+        String packageName = cu.getPackage() == null ? "" : cu.getPackage().getName().getFullyQualifiedName();
+        return new MethodIndexStore.FileRecord(file.getPath(), bytes.length, file.lastModified(), hash, packageName,
+                MethodIndex.collectTypes(cu), Collections.emptyList());
+    }
+
+    private static void listFiles(File dir, List<File> javaFiles) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            if (file.isDirectory()) {
+                listFiles(file, javaFiles);
+            } else if (file.getName().endsWith(".java")) {
+                javaFiles.add(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package Analyzer.var;
+
+import Analyzer.slicer.BatchSlicer;
+import Analyzer.slicer.CodeSlicer;
+import Analyzer.slicer.CompactGraph;
+import Analyzer.util.MethodFinder;
+import Analyzer.util.MethodIndex;
+import Analyzer.util.Metrics;
+import Analyzer.util.SnippetStore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.cli.*;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+
+// Builds the whole prompt context of each target method in one pass: the two-hop slice with callee sources (as
+// CodeSlicer -b writes it), and for every overload of the target its source, its class-level, inherited,
+// parameter and local variables (as AvaVarList writes them) and optionally its resolved variable references
+// (as VarRefine writes them). Callee sources come from the method index, which without -x is lazy and parses only
+// the files declaring callees. Targets are found, cut out and described in the one parse with bindings of the
+// files that may declare them, where running the three tools separately parses each of those files three times.
+//   {"target", "methods": [{"file", "class", "parameters", "source", "variables": [{"scope", "name", "type"}],
+//    "references": [...]}], "slice": [...]}
+// With a snippet store, sources and variable lists are written to it once and records carry "sourceId",
+// "variablesId" and "sourceIds" instead; the stored variable list is the JSON array shown above.
+public class ContextExtractor {
+    private static final int SOURCE_CACHE_SIZE = 512;
+
+    private final MethodFinder finder;
+    private final BatchSlicer slicer;
+    private final String[] srcPaths;
+    private final String[] classpathEntries;
+    private final InheritedFieldCache inheritedFields = new InheritedFieldCache();
+    // null unless references are wanted
+    private VarRefine refine;
+    private SnippetStore snippets;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    ContextExtractor(MethodFinder finder, BatchSlicer slicer, String[] srcPaths, String[] classpathEntries) {
+        this.finder = finder;
+        this.slicer = slicer;
+        this.srcPaths = srcPaths;
+        this.classpathEntries = classpathEntries;
+    }
+
+    void includeReferences(File classIndexFile) throws IOException {
+        refine = new VarRefine(srcPaths, classpathEntries, VarRefine.DEFAULT_CACHE_SIZE);
+        refine.indexClasses(classIndexFile);
+    }
+
+    void setSnippetStore(SnippetStore snippets) {
+        this.snippets = snippets;
+        slicer.setSnippetStore(snippets);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Options options = new Options();
+
+        Option input = new Option("i", "input", true, "call graph file");
+        input.setRequired(true);
+        options.addOption(input);
+
+        Option directory = new Option("d", "directory", true, "project source directory");
+        directory.setRequired(true);
+        options.addOption(directory);
+
+        Option batch = new Option("b", "batch", true, "file of target method signatures, one per line (- for stdin)");
+        batch.setRequired(true);
+        options.addOption(batch);
+
+        Option output = new Option("o", "output", true, "output file path (default: stdout)");
+        options.addOption(output);
+
+        Option srcPaths_temp = new Option("s", "srcpaths", true, "src paths file");
+        srcPaths_temp.setRequired(true);
+        options.addOption(srcPaths_temp);
+
+        Option classpathEntries_temp = new Option("c", "classpathentries", true, "classpath entries file");
+        classpathEntries_temp.setRequired(true);
+        options.addOption(classpathEntries_temp);
+
+        Option methodIndex = new Option("x", "method-index", true, "persistent index of the whole source tree; only changed sources are re-parsed (default: parse callee files on demand)");
+        options.addOption(methodIndex);
+
+        Option threads = new Option("t", "threads", true, "worker threads for call-graph loading and source indexing");
+        options.addOption(threads);
+
+        Option references = new Option("r", "references", false, "also resolve the variable references of each target");
+        options.addOption(references);
+
+        Option classIndex = new Option("X", "class-index", true, "file persisting the class index used by -r between runs");
+        options.addOption(classIndex);
+
+        Option snippetStore = new Option("z", "snippets", true, "store sources and variable lists once in this snippet store and write their ids");
+        options.addOption(snippetStore);
+
+        BasicParser basicParser = new BasicParser();
+        HelpFormatter formatter = new HelpFormatter();
+        CommandLine cmd;
+
+        try {
+            cmd = basicParser.parse(options, args);
+        } catch (ParseException e) {
+            System.out.println(e.getMessage());
+            formatter.printHelp("utility-name", options);
+
+            System.exit(1);
+            return;
+        }
+
+        int threadCount = Integer.parseInt(cmd.getOptionValue("threads", String.valueOf(Runtime.getRuntime().availableProcessors())));
+        CompactGraph callGraph = CodeSlicer.createCompactGraphFromOutput(cmd.getOptionValue("input"), threadCount, true);
+        MethodFinder finder;
+        if (cmd.hasOption("method-index")) {
+            finder = new MethodFinder(cmd.getOptionValue("directory"));
+            finder.setIndexFile(new File(cmd.getOptionValue("method-index")));
+        } else {
+            finder = new MethodFinder(cmd.getOptionValue("directory"), true, SOURCE_CACHE_SIZE);
+        }
+        finder.analyze(threadCount);
+
+        String[] srcPaths = Files.readAllLines(Paths.get(cmd.getOptionValue("srcpaths"))).toArray(new String[0]);
+        String[] classpathEntries = Files.readAllLines(Paths.get(cmd.getOptionValue("classpathentries"))).toArray(new String[0]);
+        // name-only targets slice every overload, as with CodeSlicer -b
+        BatchSlicer slicer = new BatchSlicer(CodeSlicer.withOverloads(callGraph::getTwoHopsMethods, callGraph::overloadsOf), finder, 1);
+        ContextExtractor extractor = new ContextExtractor(finder, slicer, srcPaths, classpathEntries);
+        if (cmd.hasOption("references")) {
+            extractor.includeReferences(cmd.hasOption("class-index") ? new File(cmd.getOptionValue("class-index")) : null);
+        }
+
+        List<String> targets = new ArrayList<>();
+        String batchFile = cmd.getOptionValue("batch");
+        try (BufferedReader in = "-".equals(batchFile)
+                ? new BufferedReader(new InputStreamReader(System.in))
+                : new BufferedReader(new FileReader(batchFile))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    targets.add(line.trim());
+                }
+            }
+        }
+
+        SnippetStore snippets = cmd.hasOption("snippets") ? new SnippetStore(new File(cmd.getOptionValue("snippets")), false) : null;
+        ObjectMapper mapper = new ObjectMapper();
+        try (Writer out = cmd.hasOption("output")
+                ? Files.newBufferedWriter(Paths.get(cmd.getOptionValue("output")), StandardCharsets.UTF_8)
+                : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+            if (snippets != null) {
+                extractor.setSnippetStore(snippets);
+            }
+            for (Map<String, Object> record : extractor.extract(targets)) {
+                out.write(mapper.writeValueAsString(record));
+                out.write('\n');
+            }
+        } finally {
+            if (snippets != null) {
+                System.err.println(snippets);
+                snippets.close();
+            }
+        }
+        System.err.println(extractor.inheritedFields);
+    }
+
+    // one record per target, in target order
+    List<Map<String, Object>> extract(List<String> targets) {
+        List<Map<String, Object>> records = new ArrayList<>(targets.size());
+        List<Declarations> declarations = new ArrayList<>();
+        // file path -> the targets that may be declared there
+        Map<String, List<Declarations>> byFile = new LinkedHashMap<>();
+        long sliceStart = Metrics.start();
+        try {
+            for (String target : targets) {
+                Map<String, Object> sliced = slicer.sliceRecord(target);
+                Map<String, Object> record = new LinkedHashMap<>();
+                record.put("target", target);
+                if (!sliced.containsKey("error")) {
+                    Declarations declared = new Declarations(CodeSlicer.Method.parseMethod(target));
+                    declared.files = finder.getPathIndex().candidateFiles(declared.method.getPackageName(),
+                            declared.method.getClassName());
+                    for (File file : declared.files) {
+                        byFile.computeIfAbsent(file.getPath(), k -> new ArrayList<>()).add(declared);
+                    }
+                    declarations.add(declared);
+                    // filled in by the bindings pass
+                    record.put("methods", declared.methods);
+                }
+                record.putAll(sliced);
+                records.add(record);
+            }
+        } finally {
+            Metrics.stop("context.slice", sliceStart);
+        }
+
+        // bindings are only valid while the parser runs, so everything that needs them happens in acceptAST
+        long extractStart = Metrics.start();
+        try {
+            newParser().createASTs(byFile.keySet().toArray(new String[0]), null, new String[0], new FileASTRequestor() {
+                @Override
+                public void acceptAST(String sourceFilePath, CompilationUnit cu) {
+                    Metrics.increment("context.files");
+                    Map<Integer, List<Map<String, Object>>> byOffset = findDeclarations(sourceFilePath, cu, byFile.get(sourceFilePath));
+                    if (byOffset.isEmpty()) {
+                        return;
+                    }
+                    cu.accept(new ASTVisitor() {
+                        @Override
+                        public boolean visit(MethodDeclaration node) {
+                            List<Map<String, Object>> overloads = byOffset.get(node.getStartPosition());
+                            if (overloads != null) {
+                                describe(sourceFilePath, cu, node, overloads);
+                            }
+                            return super.visit(node);
+                        }
+                    });
+                }
+            }, null);
+        } finally {
+            Metrics.stop("context.extract", extractStart);
+        }
+        // overloads in the order of the candidate files, whatever order the parser handed them out in
+        for (Declarations declared : declarations) {
+            for (File file : declared.files) {
+                declared.methods.addAll(declared.found.getOrDefault(file.getPath(), Collections.emptyList()));
+            }
+        }
+        return records;
+    }
+
+    // a target and the files that may declare it; the bindings pass records its overloads per file
+    private static class Declarations {
+        final CodeSlicer.Method method;
+        List<File> files;
+        final List<Map<String, Object>> methods = new ArrayList<>();
+        final Map<String, List<Map<String, Object>>> found = new HashMap<>();
+
+        Declarations(CodeSlicer.Method method) {
+            this.method = method;
+        }
+    }
+
+    // the "methods" entries of the targets declared in this unit, by declaration offset; entries come from the
+    // unit itself, so a target file is never parsed for the method index as well
+    private Map<Integer, List<Map<String, Object>>> findDeclarations(String sourceFilePath, CompilationUnit cu,
+                                                                     List<Declarations> candidates) {
+        MethodIndex index = new MethodIndex();
+        index.addAll(MethodIndex.collect(new File(sourceFilePath), cu));
+        Map<Integer, List<Map<String, Object>>> byOffset = new HashMap<>();
+        for (Declarations declared : candidates) {
+            CodeSlicer.Method method = declared.method;
+            List<Map<String, Object>> overloads = new ArrayList<>();
+            for (MethodIndex.Entry entry : index.lookup(method.getPackageName(), method.getClassName(), method.getMethodName(),
+                    method.getParameters())) {
+                Map<String, Object> overload = new LinkedHashMap<>();
+                overload.put("file", entry.file.getPath());
+                overload.put("class", entry.className);
+                overload.put("parameters", entry.parameterTypes);
+                String source = finder.getMethodSource(entry);
+                if (snippets == null || source == null) {
+                    overload.put("source", source);
+                } else {
+                    overload.put("sourceId", snippets.put(source));
+                }
+                overloads.add(overload);
+                byOffset.computeIfAbsent(entry.offset, k -> new ArrayList<>()).add(overload);
+            }
+            if (!overloads.isEmpty()) {
+                declared.found.put(sourceFilePath, overloads);
+            }
+        }
+        return byOffset;
+    }
+
+    private void describe(String sourceFilePath, CompilationUnit cu, MethodDeclaration node, List<Map<String, Object>> overloads) {
+        Metrics.increment("context.methods");
+        List<Map<String, String>> variables = new ArrayList<>();
+        try {
+            AvaVarList.collectVariables(node, (scope, name, type) -> {
+                Map<String, String> variable = new LinkedHashMap<>();
+                variable.put("scope", scope);
+                variable.put("name", name);
+                variable.put("type", type);
+                variables.add(variable);
+            }, inheritedFields);
+        } catch (RuntimeException e) {
+            // unresolved bindings in a broken source; keep the variables found so far
+            Metrics.increment("failures.context.variables");
+        }
+        String variablesId = null;
+        if (snippets != null) {
+            try {
+                variablesId = snippets.put(mapper.writeValueAsString(variables));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        List<VarRefine.Record> references = new ArrayList<>();
+        if (refine != null) {
+            refine.resolve(sourceFilePath, cu, node, references::add);
+        }
+        for (Map<String, Object> overload : overloads) {
+            if (snippets == null) {
+                overload.put("variables", variables);
+            } else {
+                overload.put("variablesId", variablesId);
+            }
+            if (refine != null) {
+                overload.put("references", references);
+            }
+        }
+    }
+
+    private ASTParser newParser() {
+        ASTParser astParser = ASTParser.newParser(AST.JLS14);
+        astParser.setResolveBindings(true);
+        astParser.setBindingsRecovery(true);
+        astParser.setKind(ASTParser.K_COMPILATION_UNIT);
+
+        astParser.setCompilerOptions(JavaCore.getOptions());
+        String[] encodings = new String[classpathEntries.length];
+        Arrays.fill(encodings, "");
+        astParser.setEnvironment(srcPaths, classpathEntries, encodings, true);
+        return astParser;
+    }
+}
@@ -0,0 +1,97 @@
+package Analyzer.var;
+
+import Analyzer.util.Metrics;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Flattened inherited-field lists keyed by type binding key. A type's entry is its superclass's declared fields
+// followed by the superclass's own entry, so siblings sharing a hierarchy compute every ancestor once.
+class InheritedFieldCache {
+    static class Field {
+        final String name;
+        final String type;
+
+        Field(String name, String type) {
+            this.name = name;
+            this.type = type;
+        }
+    }
+
+    private static class Entry {
+        final List<Field> fields;
+        // time it took to build this entry including its ancestors, credited as saved on every hit
+        final long nanos;
+
+        Entry(List<Field> fields, long nanos) {
+            this.fields = fields;
+            this.nanos = nanos;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder savedNanos = new LongAdder();
+
+    // fields declared by every superclass of type, nearest superclass first
+    List<Field> inheritedFields(ITypeBinding type) {
+        return entry(type).fields;
+    }
+
+    private Entry entry(ITypeBinding type) {
+        String key = type.getKey();
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            hits.increment();
+            savedNanos.add(entry.nanos);
+            Metrics.increment("inheritedFields.hits");
+            return entry;
+        }
+        misses.increment();
+        Metrics.increment("inheritedFields.misses");
+
+        long start = System.nanoTime();
+        ITypeBinding superclass = type.getSuperclass();
+        if (superclass == null) {
+            entry = new Entry(Collections.emptyList(), 0);
+        } else {
+            List<Field> fields = new ArrayList<>();
+            for (IVariableBinding var : superclass.getDeclaredFields()) {
+                fields.add(new Field(var.getName(), var.getType().getName()));
+            }
+            fields.addAll(entry(superclass).fields);
+            entry = new Entry(Collections.unmodifiableList(fields), System.nanoTime() - start);
+        }
+        Entry existing = entries.putIfAbsent(key, entry);
+        return existing != null ? existing : entry;
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+
+    double getHitRate() {
+        long lookups = getHits() + getMisses();
+        return lookups == 0 ? 0 : (double) getHits() / lookups;
+    }
+
+    long getSavedNanos() {
+        return savedNanos.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Inherited field cache: %d hits, %d misses, %.1f%% hit rate, ~%d ms saved",
+                getHits(), getMisses(), getHitRate() * 100, getSavedNanos() / 1000000);
+    }
+}
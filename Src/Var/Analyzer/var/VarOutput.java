@@ -0,0 +1,153 @@
+package Analyzer.var;
+
+import Analyzer.util.Metrics;
+import Analyzer.util.SnippetStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Output of the available-variable extraction, opened once per run and written through one buffer.
+// "text" keeps the original "Class-level variable name:" line format, "jsonl" writes one
+// {"method", "scope", "name", "type"} object per variable. With a snippet store (jsonl only), each method's
+// variables go to the store as one [{"scope", "name", "type"}] array and the output gets one
+// {"file", "method", "variablesId"} line per method, so identical inventories are written once.
+class VarOutput implements Closeable, AvaVarList.VariableSink {
+    static final String CLASS = "class";
+    static final String INHERITED = "inherited";
+    static final String PARAMETER = "parameter";
+    static final String LOCAL = "local";
+
+    private final BufferedWriter writer;
+    private final boolean json;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final SnippetStore snippets;
+    // variables of the current method while they are collected for the snippet store
+    private final List<Map<String, String>> inventory = new ArrayList<>();
+    private String file;
+    private String method;
+
+    VarOutput(String outputFilePath, String format) throws IOException {
+        this(outputFilePath, format, null);
+    }
+
+    VarOutput(String outputFilePath, String format, SnippetStore snippets) throws IOException {
+        if (!"text".equals(format) && !"jsonl".equals(format)) {
+            throw new IllegalArgumentException("unknown output format: " + format);
+        }
+        if (snippets != null && !"jsonl".equals(format)) {
+            throw new IllegalArgumentException("a snippet store needs the jsonl format");
+        }
+        this.writer = Files.newBufferedWriter(Paths.get(outputFilePath), StandardCharsets.UTF_8);
+        this.json = "jsonl".equals(format);
+        this.snippets = snippets;
+    }
+
+    // batch runs name the source file before its methods
+    void beginFile(String filePath) {
+        endMethod();
+        this.file = filePath;
+        if (!json) {
+            writeLine("File: " + filePath);
+        }
+    }
+
+    void beginMethod(String methodName) {
+        endMethod();
+        this.method = methodName;
+        if (!json) {
+            writeLine("Method: " + methodName);
+        }
+    }
+
+    @Override
+    public void variable(String scope, String name, String type) {
+        Metrics.increment("varoutput.variables");
+        if (snippets != null) {
+            Map<String, String> variable = new LinkedHashMap<>();
+            variable.put("scope", scope);
+            variable.put("name", name);
+            variable.put("type", type);
+            inventory.add(variable);
+            return;
+        }
+        if (json) {
+            Map<String, String> record = new LinkedHashMap<>();
+            if (file != null) {
+                record.put("file", file);
+            }
+            record.put("method", method);
+            record.put("scope", scope);
+            record.put("name", name);
+            record.put("type", type);
+            try {
+                writeLine(mapper.writeValueAsString(record));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return;
+        }
+        String label = label(scope);
+        writeLine(label + " name: " + name);
+        writeLine(label + " type: " + type);
+    }
+
+    // writes the inventory line of the method just finished; nothing without a snippet store
+    private void endMethod() {
+        if (snippets == null || method == null) {
+            return;
+        }
+        Map<String, String> record = new LinkedHashMap<>();
+        if (file != null) {
+            record.put("file", file);
+        }
+        record.put("method", method);
+        try {
+            record.put("variablesId", snippets.put(mapper.writeValueAsString(inventory)));
+            writeLine(mapper.writeValueAsString(record));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        inventory.clear();
+        method = null;
+    }
+
+    private static String label(String scope) {
+        switch (scope) {
+            case CLASS:
+                return "Class-level variable";
+            case INHERITED:
+                return "Inherited variable";
+            case PARAMETER:
+                return "Parameter";
+            default:
+                return "Method-level variable";
+        }
+    }
+
+    private void writeLine(String line) {
+        try {
+            writer.write(line);
+            writer.write('\n');
+            Metrics.add("varoutput.chars", line.length() + 1);
+        } catch (IOException e) {
+            Metrics.increment("failures.varoutput.write");
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        endMethod();
+        writer.close();
+    }
+}
@@ -0,0 +1,287 @@
+package Analyzer.var;
+
+import Analyzer.util.Metrics;
+import org.apache.commons.cli.*;
+import org.eclipse.jdt.core.*;
+import org.eclipse.jdt.core.dom.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.dom.AST;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.Name;
+import org.eclipse.jdt.core.dom.SimpleName;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// Resolves every variable reference of a compilation unit to its type, the top-level class declaring that type
+// and the source file of that class. Source roots and classpath are configured once per resolver; source file
+// lookups are memoized by binary name and class sources are kept in a bounded cache.
+public class VarRefine {
+    static final int DEFAULT_CACHE_SIZE = 256;
+
+    private final String[] srcPaths;
+    private final String[] classpathEntries;
+    private final Map<String, Optional<String>> sourcePaths = new ConcurrentHashMap<>();
+    private final Map<String, String> sources;
+    private ClassIndex classIndex;
+
+    public static class Record {
+        public final String file;
+        public final int line;
+        public final String variable;
+        public final String type;
+        public final String declaringClass;
+        public final String binaryName;
+        public final String sourcePath;
+
+        Record(String file, int line, String variable, String type, String declaringClass, String binaryName, String sourcePath) {
+            this.file = file;
+            this.line = line;
+            this.variable = variable;
+            this.type = type;
+            this.declaringClass = declaringClass;
+            this.binaryName = binaryName;
+            this.sourcePath = sourcePath;
+        }
+    }
+
+    public VarRefine(String[] srcPaths, String[] classpathEntries, int cacheSize) {
+        this.srcPaths = srcPaths;
+        this.classpathEntries = classpathEntries;
+        this.sources = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public static void main(String[] args) throws IOException {
+        Options options = new Options();
+
+        Option input = new Option("i", "input", true, "input java file path");
+        options.addOption(input);
+
+        Option inputs = new Option("b", "batch", true, "file listing input java file paths, one per line");
+        options.addOption(inputs);
+
+        Option output = new Option("o", "output", true, "output file path (default: stdout)");
+        options.addOption(output);
+
+        Option srcPaths_temp = new Option("s", "srcpaths", true, "src paths file");
+        srcPaths_temp.setRequired(true);
+        options.addOption(srcPaths_temp);
+
+        Option classpathEntries_temp = new Option("c", "classpathentries", true, "classpath entries file");
+        classpathEntries_temp.setRequired(true);
+        options.addOption(classpathEntries_temp);
+
+        Option classIndex = new Option("x", "class-index", true, "file persisting the class index between runs");
+        options.addOption(classIndex);
+
+        BasicParser basicParser = new BasicParser();
+        HelpFormatter formatter = new HelpFormatter();
+        CommandLine cmd;
+
+        try {
+            cmd = basicParser.parse(options, args);
+        } catch (ParseException e) {
+            System.out.println(e.getMessage());
+            formatter.printHelp("utility-name", options);
+
+            System.exit(1);
+            return;
+        }
+
+        List<String> files = new ArrayList<>();
+        if (cmd.hasOption("input")) {
+            files.add(cmd.getOptionValue("input"));
+        }
+        if (cmd.hasOption("batch")) {
+            for (String line : Files.readAllLines(Paths.get(cmd.getOptionValue("batch")))) {
+                if (!line.trim().isEmpty()) {
+                    files.add(line.trim());
+                }
+            }
+        }
+        if (files.isEmpty()) {
+            System.out.println("Missing required option: i or b");
+            formatter.printHelp("utility-name", options);
+
+            System.exit(1);
+            return;
+        }
+
+        String[] srcPaths = Files.readAllLines(Paths.get(cmd.getOptionValue("srcpaths"))).toArray(new String[0]);
+        String[] classpathEntries = Files.readAllLines(Paths.get(cmd.getOptionValue("classpathentries"))).toArray(new String[0]);
+        VarRefine refine = new VarRefine(srcPaths, classpathEntries, DEFAULT_CACHE_SIZE);
+        refine.indexClasses(cmd.hasOption("class-index") ? new File(cmd.getOptionValue("class-index")) : null);
+
+        ObjectMapper mapper = new ObjectMapper();
+        try (Writer out = cmd.hasOption("output")
+                ? Files.newBufferedWriter(Paths.get(cmd.getOptionValue("output")), StandardCharsets.UTF_8)
+                : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))) {
+            refine.resolve(files, record -> {
+                try {
+                    out.write(mapper.writeValueAsString(record));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    // parses all files against one name environment and reports one record per resolved variable reference
+    public void resolve(List<String> files, Consumer<Record> records) {
+        ASTParser parser = ASTParser.newParser(AST.JLS14);
+        parser.setResolveBindings(true);
+        parser.setBindingsRecovery(true);
+        parser.setKind(ASTParser.K_COMPILATION_UNIT);
+
+        parser.setCompilerOptions(JavaCore.getOptions());
+        String[] encodings = new String[classpathEntries.length];
+        Arrays.fill(encodings, "");
+        parser.setEnvironment(srcPaths, classpathEntries, encodings, true);
+
+        long start = Metrics.start();
+        try {
+            parser.createASTs(files.toArray(new String[0]), null, new String[0], new FileASTRequestor() {
+                @Override
+                public void acceptAST(String sourceFilePath, CompilationUnit cu) {
+                    Metrics.increment("varrefine.files");
+                    long extractStart = Metrics.start();
+                    try {
+                        resolve(sourceFilePath, cu, records);
+                    } finally {
+                        Metrics.stop("varrefine.extract", extractStart);
+                    }
+                }
+            }, null);
+        } finally {
+            Metrics.stop("varrefine.resolve", start);
+        }
+    }
+
+    public void resolve(String filePath, CompilationUnit cu, Consumer<Record> records) {
+        resolve(filePath, cu, cu, records);
+    }
+
+    // only the references inside scope, e.g. one method declaration of cu
+    public void resolve(String filePath, CompilationUnit cu, ASTNode scope, Consumer<Record> records) {
+        scope.accept(new ASTVisitor() {
+            @Override
+            public boolean visit(SimpleName node) {
+                IBinding binding = node.resolveBinding();
+                if (binding != null && binding.getKind() == IBinding.VARIABLE) {
+                    ITypeBinding typeBinding = node.resolveTypeBinding();
+                    if (typeBinding != null) {
+                        int lineNumber = cu.getLineNumber(node.getStartPosition());
+                        ITypeBinding declaringClass = getDeclaringClass(typeBinding);
+                        String binaryName = declaringClass == null ? null : declaringClass.getBinaryName();
+                        Metrics.increment("varrefine.records");
+                        records.accept(new Record(filePath, lineNumber, node.getIdentifier(), typeBinding.getQualifiedName(),
+                                declaringClass == null ? null : declaringClass.getQualifiedName(), binaryName,
+                                binaryName == null ? null : getSourceFilePath(binaryName)));
+                    }
+                }
+                return super.visit(node);
+            }
+        });
+    }
+
+    // scans the source roots once so lookups also find nested and secondary types; storeFile may be null
+    public void indexClasses(File storeFile) throws IOException {
+        ClassIndex index = new ClassIndex(srcPaths, storeFile);
+        long start = Metrics.start();
+        try {
+            index.build();
+        } finally {
+            Metrics.stop("varrefine.classIndex", start);
+        }
+        Metrics.add("varrefine.classIndex.filesParsed", index.getParsedFileCount());
+        Metrics.add("varrefine.classIndex.filesReused", index.getReusedFileCount());
+        System.err.println("Class index: " + index.size() + " types, " + index.getParsedFileCount() + " files parsed, "
+                + index.getReusedFileCount() + " reused");
+        this.classIndex = index;
+        sourcePaths.clear();
+    }
+
+    //returns null when the class has no source under the configured source roots
+    public String getSourceFilePath(String binaryName) {
+        Optional<String> known = sourcePaths.get(binaryName);
+        if (known != null) {
+            Metrics.increment("varrefine.sourcePath.hits");
+            return known.orElse(null);
+        }
+        Metrics.increment("varrefine.sourcePath.misses");
+        return sourcePaths.computeIfAbsent(binaryName, k -> Optional.ofNullable(
+                classIndex != null ? classIndex.lookup(k) : getSourceFilePath(k, srcPaths))).orElse(null);
+    }
+
+    //returns null when the class has no readable source under the configured source roots
+    public String getDeclaringClassSource(String binaryName) {
+        synchronized (sources) {
+            String source = sources.get(binaryName);
+            if (source != null) {
+                Metrics.increment("varrefine.sourceCache.hits");
+                return source;
+            }
+        }
+        Metrics.increment("varrefine.sourceCache.misses");
+        String sourceFilePath = getSourceFilePath(binaryName);
+        if (sourceFilePath == null) {
+            return null;
+        }
+        try {
+            String source = new String(Files.readAllBytes(Paths.get(sourceFilePath)));
+            synchronized (sources) {
+                sources.put(binaryName, source);
+            }
+            return source;
+        } catch (IOException e) {
+            Metrics.increment("failures.varrefine.read");
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static String getSourceFilePath(String binaryName, String[] srcPaths) {
+        String relativePath = binaryName.replace('.', File.separatorChar) + ".java";
+        for (String srcPath : srcPaths) {
+            Path sourceFilePath = Paths.get(srcPath, relativePath);
+            if (Files.exists(sourceFilePath)) {
+                return sourceFilePath.toString();
+            }
+        }
+        return null;
+    }
+
+    private static ITypeBinding getDeclaringClass(ITypeBinding typeBinding) {
+        if (typeBinding == null || typeBinding.isPrimitive()) {
+            return null;
+        }
+        if (typeBinding.isArray()) {
+            return getDeclaringClass(typeBinding.getElementType());
+        }
+        if (typeBinding.getDeclaringClass() != null) {
+            return getDeclaringClass(typeBinding.getDeclaringClass());
+        } else {
+            return typeBinding;
+        }
+    }
+
+    // simple, binary or fully-qualified name to source file through the class index, without walking the source roots
+    public String findSourceFileByClassName(String className) {
+        return classIndex == null ? null : classIndex.lookup(className);
+    }
+
+}